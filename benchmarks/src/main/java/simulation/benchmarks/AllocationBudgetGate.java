@@ -0,0 +1,81 @@
+package simulation.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.core.SimulationState;
+
+/**
+ * Allocation gate for the simulation engine, measuring the bytes allocated per step per individual
+ * in a headless simulation and failing if they exceed a budget, so that allocation-free hot paths
+ * stay allocation-free. Options are given as key=value arguments, e.g. population=10000 budget=16.
+ * Should be run with -Dsimulation.fastForward=false, so that measured steps simulate every individual,
+ * and stops measuring early if the simulation finishes.
+ */
+public class AllocationBudgetGate {
+
+    // Default population size
+    private static final int DEFAULT_POPULATION = 10000;
+
+    // Default number of steps to warm up and to measure, one simulated day each
+    private static final int DEFAULT_WARMUP_STEPS = 144;
+    private static final int DEFAULT_MEASURED_STEPS = 144;
+
+    // Default budget in bytes allocated per step per individual, as set in the allocation-gate profile
+    private static final double DEFAULT_BUDGET = 16;
+
+    /**
+     * Run the allocation gate, exiting with a non-zero status if the budget is exceeded
+     * 
+     * @param args Options as key=value arguments
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    public static void main(String[] args) throws InitialisationException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        int populationSize = Integer.parseInt(
+                options.getOrDefault("population", String.valueOf(DEFAULT_POPULATION)));
+        int threadNum = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Simulation.THREAD_NUM)));
+        int warmupSteps = Integer.parseInt(options.getOrDefault("warmup", String.valueOf(DEFAULT_WARMUP_STEPS)));
+        int measuredSteps = Integer.parseInt(options.getOrDefault("steps", String.valueOf(DEFAULT_MEASURED_STEPS)));
+        double budget = Double.parseDouble(options.getOrDefault("budget", String.valueOf(DEFAULT_BUDGET)));
+
+        Simulation simulation = HeadlessSimulation.create(populationSize, threadNum);
+        double bytesPerAgentStep;
+        int steps = 0;
+        try {
+            // Warm up, so that one-off allocations such as route caching are excluded
+            for (int i = 0; i < warmupSteps && simulation.getState() != SimulationState.FINISHED; i++) {
+                simulation.step();
+            }
+
+            // Measure allocations by all threads over the measured steps
+            long allocationStart = JvmStatistics.getAllocatedBytes();
+            while (steps < measuredSteps && simulation.getState() != SimulationState.FINISHED) {
+                simulation.step();
+                steps++;
+            }
+            long allocated = JvmStatistics.getAllocatedBytes() - allocationStart;
+            bytesPerAgentStep = (double) allocated / Math.max(1, steps) / populationSize;
+        } finally {
+            simulation.shutdown();
+        }
+
+        System.out.printf("Allocated %.2f bytes per step per individual (budget %.2f), "
+                + "population %d, %d threads, %d steps%n",
+                bytesPerAgentStep, budget, populationSize, threadNum, steps);
+        if (steps == 0) {
+            System.out.println("Simulation finished before measuring");
+            System.exit(1);
+        }
+        if (bytesPerAgentStep > budget) {
+            System.out.println("Allocation budget exceeded");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package simulation.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running benchmarks headless, exporting results as JSON for regression tracking.
+ * Accepts the standard JMH command line options, which take precedence over the defaults.
+ */
+public class BenchmarkRunner {
+
+    // Default file for benchmark results
+    private static final String RESULT_FILE = "benchmark-results.json";
+
+    /**
+     * Run the benchmarks
+     * 
+     * @param args JMH command line options
+     * @throws CommandLineOptionException If the options are invalid
+     * @throws RunnerException            If the benchmarks fail to run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
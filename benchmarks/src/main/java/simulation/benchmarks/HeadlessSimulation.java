@@ -0,0 +1,46 @@
+package simulation.benchmarks;
+
+import java.io.File;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.params.SimulationParams;
+
+/**
+ * Helper class to initialise a simulation without the user interface, on the bundled map data
+ */
+public class HeadlessSimulation {
+
+    // Directory of the map shapefiles, relative to the benchmarks module by default
+    private static final String MAP_DIRECTORY = System.getProperty("simulation.maps", "../maps/warwick");
+
+    /**
+     * Initialise a simulation with the default parameters and a given population size
+     * 
+     * @param populationSize Number of individuals in the population
+     * @return Initialised simulation, ready to be stepped
+     * @throws InitialisationException If the map data cannot be loaded or parameters are invalid
+     */
+    public static Simulation create(int populationSize) throws InitialisationException {
+        return create(populationSize, Simulation.THREAD_NUM);
+    }
+
+    /**
+     * Initialise a simulation with the default parameters, a given population size and thread count
+     * 
+     * @param populationSize Number of individuals in the population
+     * @param threadNum      Number of threads to use for multithreading
+     * @return Initialised simulation, ready to be stepped
+     * @throws InitialisationException If the map data cannot be loaded or parameters are invalid
+     */
+    public static Simulation create(int populationSize, int threadNum) throws InitialisationException {
+        SimulationParams params = new SimulationParams();
+        params.getEnvironmentParams().getBuildingsFile().setFile(new File(MAP_DIRECTORY, "buildings.shp"));
+        params.getEnvironmentParams().getRoadsFile().setFile(new File(MAP_DIRECTORY, "roads.shp"));
+        params.getPopulationParams().getPopulationSize().setValue(populationSize);
+
+        Simulation simulation = new Simulation(threadNum);
+        simulation.initialise(params);
+        return simulation;
+    }
+}
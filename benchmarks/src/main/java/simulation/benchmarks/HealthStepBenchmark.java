@@ -0,0 +1,87 @@
+package simulation.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.population.Individual;
+
+/**
+ * Benchmark of a single-threaded disease pass over the whole population
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HealthStepBenchmark {
+
+    // Time step of the disease model, in days
+    private static final float TIME_STEP_DAYS = (float) Simulation.TIME_STEP / Simulation.DAY_LENGTH;
+
+    // Number of individuals in the population
+    @Param({ "1000", "5000", "20000" })
+    private int populationSize;
+
+    // Simulation providing the population
+    private Simulation simulation;
+    private List<Individual> individuals;
+
+    // Current time of the disease model
+    private float time;
+
+    /**
+     * Initialise the simulation on the bundled map data
+     * 
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InitialisationException {
+        simulation = HeadlessSimulation.create(populationSize);
+        individuals = simulation.getPopulation().getIndividuals();
+    }
+
+    /**
+     * Restart the disease each iteration, so each iteration measures a comparable outbreak
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        simulation.reset();
+        time = 0;
+    }
+
+    /**
+     * Shutdown the simulation's threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    /**
+     * Update the health of every individual for the next step
+     */
+    @Benchmark
+    public void step() {
+        time += TIME_STEP_DAYS;
+        for (Individual individual : individuals) {
+            individual.getHealth().step(time, TIME_STEP_DAYS);
+        }
+    }
+}
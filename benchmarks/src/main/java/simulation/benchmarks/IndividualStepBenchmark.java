@@ -0,0 +1,80 @@
+package simulation.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.population.Individual;
+
+/**
+ * Benchmark of a single-threaded movement pass over the whole population
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndividualStepBenchmark {
+
+    // Number of individuals in the population
+    @Param({ "1000", "5000", "20000" })
+    private int populationSize;
+
+    // Simulation providing the population
+    private Simulation simulation;
+    private List<Individual> individuals;
+
+    // Current day and time of day
+    private int day;
+    private int dayTime;
+
+    /**
+     * Initialise the simulation on the bundled map data
+     * 
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InitialisationException {
+        simulation = HeadlessSimulation.create(populationSize);
+        individuals = simulation.getPopulation().getIndividuals();
+    }
+
+    /**
+     * Shutdown the simulation's threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    /**
+     * Move every individual for the next step of the week
+     */
+    @Benchmark
+    public void step() {
+        dayTime += Simulation.TIME_STEP;
+        if (dayTime >= Simulation.DAY_LENGTH) {
+            dayTime -= Simulation.DAY_LENGTH;
+            day++;
+        }
+        for (Individual individual : individuals) {
+            individual.step(day, dayTime);
+        }
+    }
+}
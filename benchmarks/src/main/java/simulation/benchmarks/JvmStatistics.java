@@ -0,0 +1,64 @@
+package simulation.benchmarks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Helper class to read memory, allocation and garbage collection statistics of the JVM
+ */
+public class JvmStatistics {
+
+    /**
+     * Get the total time spent in garbage collection
+     * 
+     * @return Time in milliseconds
+     */
+    public static long getGCMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Get the total bytes allocated by live threads, which include the simulation's worker threads
+     * 
+     * @return Allocated bytes
+     */
+    public static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    /**
+     * Reset the peak usage of all memory pools
+     */
+    public static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Get the sum of peak usage of the heap memory pools since they were last reset
+     * 
+     * @return Peak heap usage in bytes
+     */
+    public static long getPeakHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+package simulation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.core.SimulationOutput;
+
+/**
+ * Benchmark of recording output data for each step of a simulated day
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputStepBenchmark {
+
+    // Number of steps in a simulated day
+    private static final int STEPS_PER_DAY = Simulation.DAY_LENGTH / Simulation.TIME_STEP;
+
+    // Simulation providing the output to record data in
+    private Simulation simulation;
+    private SimulationOutput output;
+
+    /**
+     * Initialise the simulation on the bundled map data
+     * 
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InitialisationException {
+        simulation = HeadlessSimulation.create(1000);
+        output = simulation.getOutput();
+    }
+
+    /**
+     * Shutdown the simulation's threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    /**
+     * Record a day of output data, clearing it afterwards so memory use stays bounded
+     */
+    @Benchmark
+    @OperationsPerInvocation(STEPS_PER_DAY)
+    public void step() {
+        for (int i = 0; i < STEPS_PER_DAY; i++) {
+            output.step(i * Simulation.TIME_STEP, 0, 0);
+        }
+        output.reset();
+    }
+}
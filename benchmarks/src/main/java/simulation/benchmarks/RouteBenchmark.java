@@ -0,0 +1,91 @@
+package simulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.environment.Building;
+import simulation.environment.Environment;
+import simulation.environment.Node;
+
+/**
+ * Benchmark of uncached route finding between homes and amenities in the road network
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteBenchmark {
+
+    // Number of distinct journeys to cycle through
+    private static final int JOURNEY_NUM = 256;
+
+    // Simulation providing the environment
+    private Simulation simulation;
+    private Environment environment;
+
+    // Start and end nodes of each journey
+    private List<Node> starts;
+    private List<Node> ends;
+    private int journey;
+
+    /**
+     * Initialise the environment and choose random journeys within connected components
+     * 
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InitialisationException {
+        simulation = HeadlessSimulation.create(1000);
+        environment = simulation.getEnvironment();
+        SplittableRandom random = new SplittableRandom(0);
+        List<Building> homes = environment.getHomes(random);
+        starts = new ArrayList<>();
+        ends = new ArrayList<>();
+        while (starts.size() < JOURNEY_NUM) {
+            Building home = homes.get(random.nextInt(homes.size()));
+            Building amenity = environment.getRandomAmenity(home.getComponentID(), random);
+            if (amenity != null) {
+                starts.add(home);
+                ends.add(amenity);
+            }
+        }
+    }
+
+    /**
+     * Shutdown the simulation's threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    /**
+     * Find the route for the next journey, bypassing the route cache
+     * 
+     * @return Route, consumed to prevent dead code elimination
+     */
+    @Benchmark
+    public List<Node> findRoute() {
+        journey = (journey + 1) % JOURNEY_NUM;
+        return environment.findRoute(starts.get(journey), ends.get(journey));
+    }
+}
@@ -0,0 +1,258 @@
+package simulation.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.core.SimulationState;
+
+/**
+ * Scaling study of the simulation engine, running headless simulations over a grid of population sizes
+ * and thread counts, and reporting throughput, memory and garbage collection for each configuration.
+ * Options are given as key=value arguments, e.g. populations=10000,100000 threads=1,2,4 steps=144.
+ * Should be run with -Dsimulation.fastForward=false, so that measured steps simulate every individual,
+ * and stops measuring early if the simulation finishes.
+ */
+public class ScalingHarness {
+
+    // Default grid of population sizes
+    private static final String DEFAULT_POPULATIONS = "10000,100000,1000000";
+
+    // Default number of steps to warm up and to measure, one simulated day each
+    private static final int DEFAULT_WARMUP_STEPS = 144;
+    private static final int DEFAULT_MEASURED_STEPS = 144;
+
+    // Default prefix of the report files
+    private static final String DEFAULT_OUTPUT = "scaling";
+
+    /**
+     * Class to represent the measurements of a single configuration
+     */
+    private static class Result {
+        int populationSize;
+        int threadNum;
+        boolean failed;
+        String error;
+        int steps;
+        double seconds;
+        double stepsPerSecond;
+        double peakHeapMB;
+        long gcMillis;
+        double allocationMBPerSecond;
+        double speedup;
+    }
+
+    /**
+     * Run the scaling study
+     * 
+     * @param args Options as key=value arguments
+     * @throws IOException If the report cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        int[] populations = parseList(options.getOrDefault("populations", DEFAULT_POPULATIONS));
+        int[] threads = parseList(options.getOrDefault("threads", defaultThreads()));
+        int warmupSteps = Integer.parseInt(options.getOrDefault("warmup", String.valueOf(DEFAULT_WARMUP_STEPS)));
+        int measuredSteps = Integer.parseInt(options.getOrDefault("steps", String.valueOf(DEFAULT_MEASURED_STEPS)));
+        String output = options.getOrDefault("output", DEFAULT_OUTPUT);
+
+        // Measure each configuration of the grid
+        List<Result> results = new ArrayList<>();
+        for (int populationSize : populations) {
+            Result baseline = null;
+            for (int threadNum : threads) {
+                System.out.printf("Population %d, %d threads... ", populationSize, threadNum);
+                Result result = measure(populationSize, threadNum, warmupSteps, measuredSteps);
+                if (!result.failed) {
+                    if (baseline == null) {
+                        baseline = result;
+                    }
+                    result.speedup = result.stepsPerSecond / baseline.stepsPerSecond;
+                    System.out.printf("%.2f steps/s%n", result.stepsPerSecond);
+                } else {
+                    System.out.println("failed: " + result.error);
+                }
+                results.add(result);
+            }
+        }
+
+        writeCSV(results, output + ".csv");
+        writeMarkdown(results, output + ".md", measuredSteps);
+    }
+
+    /**
+     * Measure a single configuration
+     * 
+     * @param populationSize Number of individuals in the population
+     * @param threadNum      Number of threads to use for multithreading
+     * @param warmupSteps    Number of steps to run before measuring
+     * @param measuredSteps  Maximum number of steps to measure, stopping once the simulation finishes
+     * @return Measurements
+     */
+    private static Result measure(int populationSize, int threadNum, int warmupSteps, int measuredSteps) {
+        Result result = new Result();
+        result.populationSize = populationSize;
+        result.threadNum = threadNum;
+
+        Simulation simulation;
+        try {
+            simulation = HeadlessSimulation.create(populationSize, threadNum);
+        } catch (InitialisationException e) {
+            result.failed = true;
+            result.error = e.getMessage();
+            return result;
+        }
+
+        try {
+            for (int i = 0; i < warmupSteps && simulation.getState() != SimulationState.FINISHED; i++) {
+                simulation.step();
+            }
+
+            // Reset memory and garbage collection statistics
+            System.gc();
+            JvmStatistics.resetPeakHeap();
+            long gcStart = JvmStatistics.getGCMillis();
+            long allocationStart = JvmStatistics.getAllocatedBytes();
+            long start = System.nanoTime();
+
+            while (result.steps < measuredSteps && simulation.getState() != SimulationState.FINISHED) {
+                simulation.step();
+                result.steps++;
+            }
+
+            // Record measurements
+            result.seconds = (System.nanoTime() - start) / 1e9;
+            result.stepsPerSecond = result.steps / result.seconds;
+            if (result.steps == 0) {
+                result.failed = true;
+                result.error = "simulation finished before measuring";
+            }
+            result.gcMillis = JvmStatistics.getGCMillis() - gcStart;
+            result.allocationMBPerSecond = (JvmStatistics.getAllocatedBytes() - allocationStart) / 1e6
+                    / result.seconds;
+            result.peakHeapMB = JvmStatistics.getPeakHeapBytes() / 1e6;
+        } finally {
+            simulation.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Write the results as CSV
+     * 
+     * @param results Results to write
+     * @param path    File path
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeCSV(List<Result> results, String path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(path)) {
+            writer.println("population,threads,status,steps,seconds,steps_per_sec,agent_steps_per_sec,speedup,efficiency,"
+                    + "peak_heap_mb,gc_ms,alloc_mb_per_sec");
+            for (Result result : results) {
+                if (result.failed) {
+                    writer.printf("%d,%d,failed,,,,,,,,,%n", result.populationSize, result.threadNum);
+                    continue;
+                }
+                writer.printf("%d,%d,ok,%d,%.3f,%.3f,%.0f,%.3f,%.3f,%.1f,%d,%.1f%n",
+                        result.populationSize, result.threadNum, result.steps, result.seconds,
+                        result.stepsPerSecond,
+                        result.stepsPerSecond * result.populationSize, result.speedup,
+                        result.speedup / result.threadNum * firstThreadNum(results, result),
+                        result.peakHeapMB, result.gcMillis, result.allocationMBPerSecond);
+            }
+        }
+    }
+
+    /**
+     * Write the results as a markdown report, with a table for each population size
+     * 
+     * @param results       Results to write
+     * @param path          File path
+     * @param measuredSteps Maximum number of steps measured per configuration
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeMarkdown(List<Result> results, String path, int measuredSteps) throws IOException {
+        try (PrintWriter writer = new PrintWriter(path)) {
+            writer.println("# Scaling Report");
+            writer.println();
+            writer.printf("Up to %d measured steps per configuration, on %d available processors. "
+                    + "Speedup and efficiency are relative to the fewest threads measured for each population "
+                    + "(strong scaling); agent-steps/s per thread compares across populations (weak scaling).%n",
+                    measuredSteps, Runtime.getRuntime().availableProcessors());
+            int populationSize = -1;
+            for (Result result : results) {
+                if (result.populationSize != populationSize) {
+                    populationSize = result.populationSize;
+                    writer.println();
+                    writer.printf("## Population %d%n%n", populationSize);
+                    writer.println("| Threads | Steps/s | Agent-steps/s per thread | Speedup | Efficiency "
+                            + "| Peak heap (MB) | GC (ms) | Allocation (MB/s) |");
+                    writer.println("|---:|---:|---:|---:|---:|---:|---:|---:|");
+                }
+                if (result.failed) {
+                    writer.printf("| %d | failed: %s | | | | | | |%n", result.threadNum, result.error);
+                    continue;
+                }
+                writer.printf("| %d | %.2f | %.0f | %.2f | %.0f%% | %.1f | %d | %.1f |%n",
+                        result.threadNum, result.stepsPerSecond,
+                        result.stepsPerSecond * result.populationSize / result.threadNum, result.speedup,
+                        100 * result.speedup / result.threadNum * firstThreadNum(results, result),
+                        result.peakHeapMB, result.gcMillis, result.allocationMBPerSecond);
+            }
+        }
+    }
+
+    /**
+     * Get the thread count of the baseline configuration for a result's population size
+     * 
+     * @param results All results
+     * @param result  Result to find the baseline of
+     * @return Baseline thread count
+     */
+    private static int firstThreadNum(List<Result> results, Result result) {
+        for (Result other : results) {
+            if (other.populationSize == result.populationSize && !other.failed) {
+                return other.threadNum;
+            }
+        }
+        return result.threadNum;
+    }
+
+    /**
+     * Get the default thread counts, doubling up to the number of available processors
+     * 
+     * @return Comma-separated thread counts
+     */
+    private static String defaultThreads() {
+        StringBuilder threads = new StringBuilder("1");
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int t = 2; t <= processors; t *= 2) {
+            threads.append(',').append(t);
+        }
+        return threads.toString();
+    }
+
+    /**
+     * Parse a comma-separated list of integers
+     * 
+     * @param list Comma-separated list
+     * @return Integers
+     */
+    private static int[] parseList(String list) {
+        String[] values = list.split(",");
+        int[] parsed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsed[i] = Integer.parseInt(values[i].trim());
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,78 @@
+package simulation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.core.InitialisationException;
+import simulation.core.Simulation;
+import simulation.core.SimulationState;
+
+/**
+ * Benchmark of a full simulation step, including movement, disease, interventions and output.
+ * Fast-forwarding is disabled, so that every measured step simulates every individual.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Dsimulation.fastForward=false" })
+public class SimulationTickBenchmark {
+
+    // Number of individuals in the population
+    @Param({ "1000", "5000", "20000" })
+    private int populationSize;
+
+    // Simulation to step
+    private Simulation simulation;
+
+    /**
+     * Initialise the simulation on the bundled map data
+     * 
+     * @throws InitialisationException If the simulation cannot be initialised
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InitialisationException {
+        simulation = HeadlessSimulation.create(populationSize);
+    }
+
+    /**
+     * Restart the simulation each iteration, so output does not accumulate across iterations
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        simulation.reset();
+    }
+
+    /**
+     * Shutdown the simulation's threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.shutdown();
+    }
+
+    /**
+     * Run a single step of the simulation, restarting it if every run has finished
+     */
+    @Benchmark
+    public void tick() {
+        if (simulation.getState() == SimulationState.FINISHED) {
+            simulation.reset();
+        }
+        simulation.step();
+    }
+}
@@ -0,0 +1,79 @@
+package simulation.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulation.disease.ITransmissionKernel;
+import simulation.disease.ScalarTransmissionKernel;
+import simulation.disease.VectorTransmissionKernel;
+
+/**
+ * Benchmark comparing the scalar and vectorised transmission kernels over a block of susceptible individuals
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class TransmissionKernelBenchmark {
+
+    // Transmission rate multiplied by the time step of the disease model
+    private static final float BASE_TRANSMISSIBILITY = 0.5f * 600 / 86400;
+
+    // Kernel implementation to benchmark
+    @Param({ "scalar", "vector" })
+    private String kernelType;
+
+    // Number of susceptible individuals in the block
+    @Param({ "64", "1024", "16384" })
+    private int blockSize;
+
+    // Block of transmission inputs and outputs
+    private ITransmissionKernel kernel;
+    private float[] infectivity;
+    private float[] susceptibility;
+    private float[] draws;
+    private boolean[] exposed;
+
+    /**
+     * Generate a block of random transmission inputs
+     */
+    @Setup
+    public void setup() {
+        kernel = kernelType.equals("vector") ? new VectorTransmissionKernel() : new ScalarTransmissionKernel();
+        Random random = new Random(0);
+        infectivity = new float[blockSize];
+        susceptibility = new float[blockSize];
+        draws = new float[blockSize];
+        exposed = new boolean[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            infectivity[i] = random.nextFloat() * 8;
+            susceptibility[i] = random.nextFloat();
+            draws[i] = random.nextFloat();
+        }
+    }
+
+    /**
+     * Evaluate transmission for the whole block
+     * 
+     * @return Exposure flags, consumed to prevent dead code elimination
+     */
+    @Benchmark
+    public boolean[] evaluate() {
+        kernel.evaluate(BASE_TRANSMISSIBILITY, infectivity, susceptibility, draws, exposed, blockSize);
+        return exposed;
+    }
+}
@@ -0,0 +1,35 @@
+package simulation.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a stage of initialising one of the simulation's components
+ */
+@Name("simulation.InitialisationStage")
+@Label("Initialisation Stage")
+@Category("Simulation")
+@Description("A stage of initialising a simulation component")
+public class InitialisationStageEvent extends Event {
+
+    @Label("Component")
+    public String component;
+
+    @Label("Stage")
+    public String stage;
+
+    /**
+     * Construct a new initialisation stage event, beginning its timing
+     * 
+     * @param component Name of the component being initialised
+     * @param stage     Name of the initialisation stage
+     */
+    public InitialisationStageEvent(String component, String stage) {
+        this.component = component;
+        this.stage = stage;
+        begin();
+    }
+}
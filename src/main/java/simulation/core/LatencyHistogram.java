@@ -0,0 +1,141 @@
+package simulation.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to represent a histogram of durations in nanoseconds, with logarithmic buckets
+ * each divided into linear sub-buckets, giving a bounded relative error at any scale
+ */
+public class LatencyHistogram {
+
+    // Number of bits of precision within each power of two
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Number of buckets, sufficient for any non-negative long value
+    private static final int BUCKET_NUM = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    // Thread-safe bucket counts and summary statistics
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_NUM);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration
+     * 
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        counts.incrementAndGet(getBucket(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get the number of recorded durations
+     * 
+     * @return Count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the total of all recorded durations
+     * 
+     * @return Total in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Get the mean recorded duration
+     * 
+     * @return Mean in nanoseconds, or zero if none are recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Get the maximum recorded duration
+     * 
+     * @return Maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get an upper bound of the duration at a given percentile
+     * 
+     * @param percentile Percentile, between 0 and 100
+     * @return Duration in nanoseconds, or zero if none are recorded
+     */
+    public long getPercentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_NUM; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(getLowerBound(i + 1) - 1, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clear all recorded durations
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_NUM; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Get the bucket containing a value
+     * 
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    private static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Get the smallest value contained in a bucket
+     * 
+     * @param bucket Bucket index
+     * @return Lower bound of the bucket
+     */
+    private static long getLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        if (exponent >= 63) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,65 @@
+package simulation.core;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class to derive independent random streams from a base seed, so that each part of the simulation
+ * draws from its own stream. Scenarios run with the same seed then share common random numbers.
+ */
+public final class RandomStreams {
+
+    // Keys of the streams derived from a simulation's seed
+    public static final long HOUSEHOLDS = 1;
+    public static final long INDIVIDUALS = 2;
+    public static final long INTERVENTIONS = 3;
+    public static final long OUTBREAK = 4;
+
+    // Keys of the streams derived from an individual's seed for each run
+    public static final long MOVEMENT = 1;
+    public static final long HEALTH = 2;
+
+    private RandomStreams() {
+    }
+
+    /**
+     * Derive the seed of a sub-stream from a seed and a key, using the SplitMix64 finaliser
+     * so that nearby keys give unrelated streams
+     *
+     * @param seed Seed of the parent stream
+     * @param key  Key of the sub-stream
+     * @return Seed of the sub-stream
+     */
+    public static long derive(long seed, long key) {
+        long z = seed + (key + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Create the random stream for a key of a seed
+     *
+     * @param seed Seed of the parent stream
+     * @param key  Key of the stream
+     * @return Random stream
+     */
+    public static SplittableRandom create(long seed, long key) {
+        return new SplittableRandom(derive(seed, key));
+    }
+
+    /**
+     * Shuffle a list in place using a random stream
+     *
+     * @param list   List to shuffle
+     * @param random Random stream
+     */
+    public static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T swap = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, swap);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package simulation.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a route which was not in the route cache, and so was computed
+ */
+@Name("simulation.RouteCacheMiss")
+@Label("Route Cache Miss")
+@Category("Simulation")
+@Description("A route between buildings computed because it was not cached")
+public class RouteCacheMissEvent extends Event {
+
+    @Label("Component ID")
+    @Description("Connected component of the road network containing the route")
+    public int componentID;
+
+    @Label("Route Length")
+    @Description("Number of nodes in the computed route")
+    public int routeLength;
+}
@@ -0,0 +1,103 @@
+package simulation.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import simulation.params.InterventionParams;
+import simulation.params.SimulationParams;
+
+/**
+ * Class to run many intervention scenarios on the same map, population and disease.
+ * Each worker builds its own simulation once, then runs scenarios from a shared queue on it,
+ * only re-initialising the interventions and output between scenarios.
+ * Workers cannot share a world, as each run mutates its environment and population,
+ * but build identical worlds from the same seed, and each scenario's runs draw the same random streams.
+ */
+public class ScenarioSweep {
+
+    // Parameters of the shared world, whose interventions are replaced by each scenario
+    private final SimulationParams parameters;
+
+    // Number of scenarios run in parallel, each with its own copy of the world
+    private final int workerNum;
+
+    // Number of threads used by each worker's simulation
+    private final int threadNum;
+
+    /**
+     * Construct a scenario sweep
+     *
+     * @param parameters Parameters of the world to simulate scenarios in
+     * @param workerNum  Number of scenarios to run in parallel, limited by the memory for copies of the world
+     * @param threadNum  Number of threads used by each worker's simulation
+     */
+    public ScenarioSweep(SimulationParams parameters, int workerNum, int threadNum) {
+        this.parameters = new SimulationParams(parameters);
+        this.workerNum = workerNum;
+        this.threadNum = threadNum;
+
+        // Fix a seed shared by every worker if unseeded, so that scenarios are compared with common random numbers
+        if (this.parameters.getSeed().getValue() == 0) {
+            this.parameters.getSeed().setValue(1 + new SplittableRandom().nextInt(Integer.MAX_VALUE - 1));
+        }
+    }
+
+    /**
+     * Run each scenario for the world's number of runs and duration
+     *
+     * @param scenarios Intervention parameters of each scenario
+     * @return Output of each scenario, in the same order as the scenarios
+     * @throws InitialisationException If the world or a scenario's interventions are invalid
+     */
+    public List<SimulationOutput> run(List<InterventionParams> scenarios) throws InitialisationException {
+        SimulationOutput[] outputs = new SimulationOutput[scenarios.size()];
+        AtomicInteger nextScenario = new AtomicInteger();
+
+        // Each worker takes the next scenario to run until none are left
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(workerNum, scenarios.size()); i++) {
+            workers.add(() -> {
+                Simulation simulation = new Simulation(threadNum);
+                try {
+                    simulation.initialise(parameters);
+                    int scenario;
+                    while ((scenario = nextScenario.getAndIncrement()) < scenarios.size()) {
+                        simulation.initialiseInterventions(scenarios.get(scenario));
+                        while (simulation.getState() != SimulationState.FINISHED) {
+                            simulation.step();
+                        }
+                        outputs[scenario] = new SimulationOutput(simulation.getOutput());
+                    }
+                } finally {
+                    simulation.shutdown();
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers.size()));
+        try {
+            for (Future<Void> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof InitialisationException) {
+                throw (InitialisationException) e.getCause();
+            }
+            throw new InitialisationException("Scenario sweep failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            throw new InitialisationException("Scenario sweep interrupted: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        return Arrays.asList(outputs);
+    }
+}
@@ -1,9 +1,12 @@
 package simulation.core;
 
+import java.util.SplittableRandom;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import simulation.params.InterventionParams;
 import simulation.params.SimulationParams;
 import simulation.environment.Environment;
 import simulation.interventions.Interventions;
@@ -22,9 +25,16 @@ public class Simulation {
     // Day length in seconds
     public static final int DAY_LENGTH = 86400;
 
-    // Number of threads to use for multithreading
+    // Default number of threads to use for multithreading
     public static final int THREAD_NUM = Math.min(10, Runtime.getRuntime().availableProcessors());
 
+    // Whether to fuse movement and contact-free disease progression into a single pass over the population
+    public static final boolean FUSED_STEP = Boolean.parseBoolean(System.getProperty("simulation.fusedStep", "true"));
+
+    // Whether to fast-forward the rest of a run once the epidemic has died out
+    public static final boolean FAST_FORWARD = Boolean.parseBoolean(
+            System.getProperty("simulation.fastForward", "true"));
+
     // Core simulation components
     private SimulationParams parameters;
     private SimulationOutput output;
@@ -33,6 +43,12 @@ public class Simulation {
     private Disease disease;
     private Interventions interventions;
 
+    // Performance metrics, collected if enabled
+    private SimulationMetrics metrics;
+
+    // Number of individuals who moved in the current step, counted for metrics and flight recording
+    private final LongAdder stepMoves = new LongAdder();
+
     // Current simulation state
     private SimulationState state;
 
@@ -41,22 +57,37 @@ public class Simulation {
     private int day;
     private int time;
 
+    // Seed for the simulation's random streams
+    private long seed;
+
     // Simulation speed in steps per second
     private int speed = 1;
 
-    // Scheduler for multi-threading
+    // Scheduler for multi-threading, and its number of threads
     private ScheduledExecutorService scheduler;
+    private final int threadNum;
 
     // Callback for state changes, used by UI for updates
     private Runnable stateChangeCallback;
 
     /**
-     * Construct the simulation
+     * Construct the simulation, using the default number of threads
      */
     public Simulation() {
-        environment = new Environment();
-        population = new Population();
-        disease = new Disease();
+        this(THREAD_NUM);
+    }
+
+    /**
+     * Construct the simulation
+     * @param threadNum Number of threads to use for multithreading
+     */
+    public Simulation(int threadNum) {
+        this.threadNum = threadNum;
+        metrics = new SimulationMetrics();
+        metrics.register();
+        environment = new Environment(metrics);
+        population = new Population(threadNum);
+        disease = new Disease(metrics);
         interventions = new Interventions();
         output = new SimulationOutput();
         changeState(SimulationState.UNINITIALISED);
@@ -78,6 +109,14 @@ public class Simulation {
         return output;
     }
 
+    /**
+     * Get the simulation performance metrics
+     * @return Metrics
+     */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Get the simulation environment
      * @return Environment
@@ -142,6 +181,14 @@ public class Simulation {
         return time;
     }
 
+    /**
+     * Get the number of threads used for multithreading
+     * @return Thread count
+     */
+    public int getThreadNum() {
+        return threadNum;
+    }
+
     /**
      * Get the current simulation speed
      * @return Speed in steps per second
@@ -169,7 +216,10 @@ public class Simulation {
         }
         changeState(SimulationState.UNINITIALISED);
         parameters = new SimulationParams(params);
-        scheduler = Executors.newScheduledThreadPool(THREAD_NUM);
+        scheduler = Executors.newScheduledThreadPool(threadNum);
+        boolean seedDirty = parameters.getSeed().isDirty();
+        seed = parameters.getSeed().getValue() != 0 ? parameters.getSeed().getValue()
+                : new SplittableRandom().nextLong();
 
         // Initialise environment
         if (parameters.getEnvironmentParams().isDirty()) {
@@ -182,9 +232,10 @@ public class Simulation {
 
         // Initialise interventions
         if (parameters.getInterventionParams().isDirty()
-                || parameters.getEnvironmentParams().isDirty()) {
+                || parameters.getEnvironmentParams().isDirty()
+                || seedDirty) {
             try {
-                interventions.initialise(parameters.getInterventionParams(), environment);
+                interventions.initialise(parameters.getInterventionParams(), environment, seed);
             } catch (InitialisationException e) {
                 throw new InitialisationException("Intervention initialisation failed: " + e.getMessage());
             }
@@ -197,9 +248,10 @@ public class Simulation {
 
         // Initialise population
         if (parameters.getPopulationParams().isDirty()
-                || parameters.getEnvironmentParams().isDirty()) {
+                || parameters.getEnvironmentParams().isDirty()
+                || seedDirty) {
             try {
-                population.initialise(parameters.getPopulationParams(), environment, output, scheduler);
+                population.initialise(parameters.getPopulationParams(), environment, output, scheduler, seed);
             } catch (InitialisationException e) {
                 throw new InitialisationException("Population initialisation failed: " + e.getMessage());
             }
@@ -208,9 +260,10 @@ public class Simulation {
         // Initialise disease
         if (parameters.getDiseaseParams().isDirty()
                 || parameters.getPopulationParams().isDirty()
-                || parameters.getEnvironmentParams().isDirty()) {
+                || parameters.getEnvironmentParams().isDirty()
+                || seedDirty) {
             try {
-                disease.initialise(parameters.getDiseaseParams(), population, interventions, output);
+                disease.initialise(parameters.getDiseaseParams(), population, interventions, output, seed);
             } catch (InitialisationException e) {
                 throw new InitialisationException("Disease initialisation failed: " + e.getMessage());
             }
@@ -220,6 +273,36 @@ public class Simulation {
         reset();
     }
 
+    /**
+     * Replace the simulation's interventions, reusing its initialised environment, population and disease,
+     * and reset the simulation ready to run the new scenario
+     * @param interventionParams Intervention parameters of the new scenario
+     * @throws InitialisationException If the simulation is not initialised, or invalid parameters are provided
+     */
+    public void initialiseInterventions(InterventionParams interventionParams) throws InitialisationException {
+        if (parameters == null) {
+            throw new InitialisationException("Simulation must be initialised before changing interventions");
+        }
+        if (state == SimulationState.PLAYING) {
+            stopScheduler();
+        }
+        changeState(SimulationState.UNINITIALISED);
+        parameters.setInterventionParams(new InterventionParams(interventionParams));
+
+        // Initialise interventions
+        try {
+            interventions.initialise(parameters.getInterventionParams(), environment, seed);
+        } catch (InitialisationException e) {
+            throw new InitialisationException("Intervention initialisation failed: " + e.getMessage());
+        }
+
+        // Initialise output
+        output.initialise(parameters.getRuns().getValue(), interventions);
+
+        // Reset simulation
+        reset();
+    }
+
     /**
      * Run the simulation
      */
@@ -253,17 +336,30 @@ public class Simulation {
             stopScheduler();
         }
         changeState(SimulationState.INITIALISED);
+        long resetStart = metrics.start();
 
         // Reset all components
         output.resetRun();
-        population.reset();
-        disease.reset();
+        environment.reset();
+        population.reset(run);
+        disease.reset(run);
         interventions.reset();
 
         day = time = 0;
+        metrics.record(StepPhase.RESET, resetStart);
         changeState(SimulationState.INITIALISED);
     }
 
+    /**
+     * Shutdown the simulation's threads, once it is no longer needed
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        metrics.unregister();
+    }
+
     /**
      * Set the simulation speed
      * @param speed Speed in steps per second
@@ -291,33 +387,140 @@ public class Simulation {
     }
 
     /**
-     * Run a single step of the simulation
+     * Run a single step of the simulation.
+     * Steps may also be run directly once initialised, without playing the simulation, for headless use.
      */
-    private void step() {
+    public void step() {
+        StepEvent event = new StepEvent();
+        event.begin();
+        boolean countMoves = SimulationMetrics.ENABLED || event.isEnabled();
+        int stepRun = run;
+        int stepDay = day;
+        int stepTime = time;
+        int cumulativeCases = output.getCumulativeCases();
+        stepMoves.reset();
+
+        long stepStart = metrics.start();
+        long phaseStart = stepStart;
         output.step(time, day, run);
+        metrics.record(StepPhase.OUTPUT, phaseStart);
         time += TIME_STEP;
-        population.step(scheduler, time);
-        disease.step(scheduler, time);
+
+        // Recompute individuals' compliance if the intervention policy has changed
+        phaseStart = metrics.start();
+        disease.updateCompliance(scheduler);
+        metrics.record(StepPhase.COMPLIANCE, phaseStart);
+
+        if (FUSED_STEP) {
+            // Fused phase, in which each partition of individuals moves and then progresses
+            // the disease states which do not depend on contacts
+            phaseStart = metrics.start();
+            disease.advance();
+            population.forEach(scheduler, individual -> {
+                if (individual.step(day, time) && countMoves) {
+                    stepMoves.increment();
+                }
+                disease.progress(individual);
+            });
+            metrics.record(StepPhase.MOVEMENT, phaseStart);
+
+            // Barrier, swapping the new locations into a frozen room occupancy snapshot
+            phaseStart = metrics.start();
+            population.updateOccupancy(scheduler);
+            metrics.record(StepPhase.OCCUPANCY, phaseStart);
+
+            // Transmission phase, reading contacts from the frozen occupancy snapshot
+            phaseStart = metrics.start();
+            disease.transmit(scheduler);
+            metrics.record(StepPhase.DISEASE, phaseStart);
+        } else {
+            // Movement phase, in which individuals only update their own locations
+            phaseStart = metrics.start();
+            population.forEach(scheduler, individual -> {
+                if (individual.step(day, time) && countMoves) {
+                    stepMoves.increment();
+                }
+            });
+            metrics.record(StepPhase.MOVEMENT, phaseStart);
+
+            // Barrier, swapping the new locations into a frozen room occupancy snapshot
+            phaseStart = metrics.start();
+            population.updateOccupancy(scheduler);
+            metrics.record(StepPhase.OCCUPANCY, phaseStart);
+
+            // Disease phase, reading contacts from the frozen occupancy snapshot
+            phaseStart = metrics.start();
+            disease.step(scheduler, time);
+            metrics.record(StepPhase.DISEASE, phaseStart);
+        }
+        metrics.record(StepPhase.STEP, stepStart);
+        long agentsActive = stepMoves.sum();
+        metrics.countAgentsMoved(agentsActive);
+        int newInfections = output.getCumulativeCases() - cumulativeCases;
+
+        // Once no one is infected and no vaccination can change the output, every remaining step
+        // of the run has the same state, so only record it
+        if (FAST_FORWARD && output.isExtinct() && !interventions.isVaccinationPending()) {
+            phaseStart = metrics.start();
+            fastForward();
+            metrics.record(StepPhase.OUTPUT, phaseStart);
+        }
+
         // Check for new day
         if (time >= DAY_LENGTH) {
             time -= DAY_LENGTH;
             day++;
+            phaseStart = metrics.start();
             interventions.step(day);
+            metrics.record(StepPhase.INTERVENTIONS, phaseStart);
             // Check for new run
             if (day >= parameters.getDuration().getValue()) {
                 output.step(time, day, run);
+                output.finishRun();
                 run++;
-                // Check for end of simulation
-                if (run >= parameters.getRuns().getValue()) {
-                    output.averageRuns();
+                // Check for end of simulation, once all runs are done or their results have converged
+                if (run >= parameters.getRuns().getValue()
+                        || output.hasConverged(parameters.getConvergence().getValue())) {
+                    output.averageRuns(run);
                     changeState(SimulationState.FINISHED);
                     stopScheduler();
                 } else {
+                    // Continue playing the next run, unless the simulation is being stepped directly
+                    boolean playing = state == SimulationState.PLAYING;
                     resetRun();
-                    play();
+                    if (playing) {
+                        play();
+                    }
                 }
             }
         }
+
+        // Record the step for flight recording
+        if (event.shouldCommit()) {
+            event.run = stepRun;
+            event.day = stepDay;
+            event.time = stepTime;
+            event.agentsActive = agentsActive;
+            event.newInfections = newInfections;
+            event.commit();
+        }
+    }
+
+    /**
+     * Fast-forward to the last step of the current run, recording the unchanged state for each skipped step.
+     * Interventions are still stepped each day, so that building closures end as they would have.
+     */
+    private void fastForward() {
+        int duration = parameters.getDuration().getValue();
+        while (time < DAY_LENGTH || day < duration - 1) {
+            if (time >= DAY_LENGTH) {
+                time -= DAY_LENGTH;
+                day++;
+                interventions.step(day);
+            }
+            output.step(time, day, run);
+            time += TIME_STEP;
+        }
     }
 
     /**
@@ -343,7 +546,7 @@ public class Simulation {
         } catch (InterruptedException e) {
             scheduler.shutdownNow();
         }
-        scheduler = Executors.newScheduledThreadPool(THREAD_NUM);
+        scheduler = Executors.newScheduledThreadPool(threadNum);
     }
 
     /**
@@ -351,6 +554,6 @@ public class Simulation {
      */
     private void stopScheduler() {
         scheduler.shutdownNow();
-        scheduler = Executors.newScheduledThreadPool(THREAD_NUM);
+        scheduler = Executors.newScheduledThreadPool(threadNum);
     }
 }
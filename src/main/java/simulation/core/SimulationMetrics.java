@@ -0,0 +1,248 @@
+package simulation.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Class to collect performance metrics of the simulation, timing each phase of a step and
+ * counting work done by its components. Disabled by default, in which case recording compiles
+ * away to nothing; enabled with the system property simulation.metrics=true, and additionally
+ * registered with JMX with simulation.metrics.jmx=true.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+
+    // Whether metrics are collected
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("simulation.metrics", "false"));
+
+    // Whether metrics are registered with JMX, if collected
+    public static final boolean JMX_ENABLED = ENABLED
+            && Boolean.parseBoolean(System.getProperty("simulation.metrics.jmx", "false"));
+
+    // Counter used to give each registered instance a unique name
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    // Timers for each phase of a step
+    private final EnumMap<StepPhase, LatencyHistogram> timers = new EnumMap<>(StepPhase.class);
+
+    // Counters of work done by the simulation's components
+    private final LongAdder agentsMoved = new LongAdder();
+    private final LongAdder contactsEvaluated = new LongAdder();
+    private final LongAdder routesComputed = new LongAdder();
+    private final LongAdder routeCacheHits = new LongAdder();
+
+    // Name the metrics are registered with in JMX, if any
+    private ObjectName objectName;
+
+    /**
+     * Construct new simulation metrics
+     */
+    public SimulationMetrics() {
+        for (StepPhase phase : StepPhase.values()) {
+            timers.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Get the timer for a phase of a step
+     * 
+     * @param phase Step phase
+     * @return Phase timer
+     */
+    public LatencyHistogram getTimer(StepPhase phase) {
+        return timers.get(phase);
+    }
+
+    /**
+     * Start timing a phase
+     * 
+     * @return Start time in nanoseconds, or zero if metrics are disabled
+     */
+    public long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finish timing a phase
+     * 
+     * @param phase Step phase
+     * @param start Start time returned when timing began
+     */
+    public void record(StepPhase phase, long start) {
+        if (ENABLED) {
+            timers.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Count individuals moving along their routes
+     * 
+     * @param agents Number of individuals
+     */
+    public void countAgentsMoved(long agents) {
+        if (ENABLED) {
+            agentsMoved.add(agents);
+        }
+    }
+
+    /**
+     * Count contacts evaluated for transmission
+     * 
+     * @param contacts Number of contacts
+     */
+    public void countContactsEvaluated(int contacts) {
+        if (ENABLED) {
+            contactsEvaluated.add(contacts);
+        }
+    }
+
+    /**
+     * Count a route search being run, which may find the routes to many targets at once
+     */
+    public void countRouteComputed() {
+        if (ENABLED) {
+            routesComputed.increment();
+        }
+    }
+
+    /**
+     * Count a route being served from the route cache
+     */
+    public void countRouteCacheHit() {
+        if (ENABLED) {
+            routeCacheHits.increment();
+        }
+    }
+
+    @Override
+    public String[] getPhaseNames() {
+        String[] names = new String[StepPhase.values().length];
+        for (StepPhase phase : StepPhase.values()) {
+            names[phase.ordinal()] = phase.getName();
+        }
+        return names;
+    }
+
+    @Override
+    public long[] getPhaseCounts() {
+        long[] counts = new long[StepPhase.values().length];
+        for (StepPhase phase : StepPhase.values()) {
+            counts[phase.ordinal()] = timers.get(phase).getCount();
+        }
+        return counts;
+    }
+
+    @Override
+    public double[] getPhaseMeanMillis() {
+        double[] means = new double[StepPhase.values().length];
+        for (StepPhase phase : StepPhase.values()) {
+            means[phase.ordinal()] = timers.get(phase).getMean() / 1e6;
+        }
+        return means;
+    }
+
+    @Override
+    public double[] getPhaseP99Millis() {
+        double[] percentiles = new double[StepPhase.values().length];
+        for (StepPhase phase : StepPhase.values()) {
+            percentiles[phase.ordinal()] = timers.get(phase).getPercentile(99) / 1e6;
+        }
+        return percentiles;
+    }
+
+    @Override
+    public double[] getPhaseMaxMillis() {
+        double[] maxima = new double[StepPhase.values().length];
+        for (StepPhase phase : StepPhase.values()) {
+            maxima[phase.ordinal()] = timers.get(phase).getMax() / 1e6;
+        }
+        return maxima;
+    }
+
+    @Override
+    public long getAgentsMoved() {
+        return agentsMoved.sum();
+    }
+
+    @Override
+    public long getContactsEvaluated() {
+        return contactsEvaluated.sum();
+    }
+
+    @Override
+    public long getRoutesComputed() {
+        return routesComputed.sum();
+    }
+
+    @Override
+    public long getRouteCacheHits() {
+        return routeCacheHits.sum();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram timer : timers.values()) {
+            timer.reset();
+        }
+        agentsMoved.reset();
+        contactsEvaluated.reset();
+        routesComputed.reset();
+        routeCacheHits.reset();
+    }
+
+    /**
+     * Register the metrics with JMX, if enabled
+     */
+    public void register() {
+        if (!JMX_ENABLED || objectName != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName("simulation:type=SimulationMetrics,id=" + INSTANCE_COUNTER.getAndIncrement());
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            objectName = null;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Unregister the metrics from JMX, if registered
+     */
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        objectName = null;
+    }
+
+    /**
+     * Summarise the metrics as text, with a line for each phase and counter
+     * 
+     * @return Summary of metrics
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        for (StepPhase phase : StepPhase.values()) {
+            LatencyHistogram timer = timers.get(phase);
+            summary.append(String.format("%-20s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms%n",
+                    phase.getName(), timer.getCount(), timer.getMean() / 1e6, timer.getPercentile(50) / 1e6,
+                    timer.getPercentile(99) / 1e6, timer.getMax() / 1e6));
+        }
+        summary.append(String.format("Agents moved=%d, contacts evaluated=%d, routes computed=%d, route cache hits=%d",
+                getAgentsMoved(), getContactsEvaluated(), getRoutesComputed(), getRouteCacheHits()));
+        return summary.toString();
+    }
+}
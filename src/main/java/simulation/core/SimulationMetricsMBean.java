@@ -0,0 +1,36 @@
+package simulation.core;
+
+/**
+ * Management interface exposing simulation metrics through JMX
+ */
+public interface SimulationMetricsMBean {
+    // Get the names of the timed step phases
+    public String[] getPhaseNames();
+
+    // Get the number of times each phase has run
+    public long[] getPhaseCounts();
+
+    // Get the mean duration of each phase in milliseconds
+    public double[] getPhaseMeanMillis();
+
+    // Get the 99th percentile duration of each phase in milliseconds
+    public double[] getPhaseP99Millis();
+
+    // Get the maximum duration of each phase in milliseconds
+    public double[] getPhaseMaxMillis();
+
+    // Get the number of individual movements along a route
+    public long getAgentsMoved();
+
+    // Get the number of contacts evaluated for transmission
+    public long getContactsEvaluated();
+
+    // Get the number of routes computed
+    public long getRoutesComputed();
+
+    // Get the number of routes served from the route cache
+    public long getRouteCacheHits();
+
+    // Clear all metrics
+    public void reset();
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.commons.math3.distribution.TDistribution;
+
 import simulation.interventions.InterventionType;
 import simulation.interventions.Interventions;
 import simulation.params.InterventionParam;
@@ -16,7 +18,16 @@ public class SimulationOutput {
     // Time period over which to count incident cases
     private static final int INCIDENT_CASE_PERIOD = 86400; // = 1 day
 
-    // Number of simulation runs set
+    // Minimum number of runs before confidence intervals are trusted to have converged
+    private static final int MIN_CONVERGENCE_RUNS = 3;
+
+    // Confidence level of the intervals checked for convergence
+    private static final double CONFIDENCE_LEVEL = 0.95;
+
+    // Maximum number of simulation runs set
+    private int maxRuns;
+
+    // Number of simulation runs, being the maximum until the simulation has finished and then the number completed
     private int runs;
 
     // Data to be collected
@@ -29,6 +40,10 @@ public class SimulationOutput {
     private List<List<List<Integer>>> deathData;
     private List<List<List<Integer>>> vaccinationData;
 
+    // Target metrics of each completed run (peak prevalence, cumulative cases, deaths),
+    // whose confidence intervals decide when to stop
+    private List<List<Integer>> runSummaryData;
+
     // Auxiliary counters to keep track of various numbers
     private int susceptibleNum;
     private int exposedNum;
@@ -41,9 +56,81 @@ public class SimulationOutput {
     private int hospitalisedNum;
     private int incidentCases;
     private int prevalentCases;
+    private int peakPrevalentCases;
     private int cumulativeCases;
     private List<Integer> vaccinationCounts; // Distinct counts for each vaccine
 
+    /**
+     * Construct empty simulation output, to be initialised
+     */
+    public SimulationOutput() {
+    }
+
+    /**
+     * Copy simulation output, so that it is unaffected by later runs of the simulation
+     * 
+     * @param output Simulation output to copy
+     */
+    public SimulationOutput(SimulationOutput output) {
+        synchronized (output) {
+            maxRuns = output.maxRuns;
+            runs = output.runs;
+            stateDistributionData = copyData(output.stateDistributionData);
+            incidentCaseData = copyData(output.incidentCaseData);
+            prevalentCaseData = copyData(output.prevalentCaseData);
+            cumulativeCaseData = copyData(output.cumulativeCaseData);
+            hospitalisationData = copyData(output.hospitalisationData);
+            deathData = copyData(output.deathData);
+            vaccinationData = copyData(output.vaccinationData);
+            runSummaryData = new ArrayList<>(output.runSummaryData);
+
+            susceptibleNum = output.susceptibleNum;
+            exposedNum = output.exposedNum;
+            infectiousNum = output.infectiousNum;
+            asymptomaticNum = output.asymptomaticNum;
+            symptomaticMildNum = output.symptomaticMildNum;
+            symptomaticSevereNum = output.symptomaticSevereNum;
+            deceasedNum = output.deceasedNum;
+            recoveredNum = output.recoveredNum;
+            hospitalisedNum = output.hospitalisedNum;
+            incidentCases = output.incidentCases;
+            prevalentCases = output.prevalentCases;
+            peakPrevalentCases = output.peakPrevalentCases;
+            cumulativeCases = output.cumulativeCases;
+            vaccinationCounts = new ArrayList<>(output.vaccinationCounts);
+        }
+    }
+
+    /**
+     * Copy the data of each run, sharing the records, which are never modified once added
+     */
+    private static List<List<List<Integer>>> copyData(List<List<List<Integer>>> data) {
+        List<List<List<Integer>>> copy = new ArrayList<>(data.size());
+        for (List<List<Integer>> runData : data) {
+            copy.add(new ArrayList<>(runData));
+        }
+        return copy;
+    }
+
+    /**
+     * Get the number of simulation runs, which is the number completed once the simulation has finished
+     * 
+     * @return Number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Get the target metrics of a completed run
+     * 
+     * @param run Run number
+     * @return Peak prevalence, cumulative cases and deaths of the given run
+     */
+    public List<Integer> getRunSummary(int run) {
+        return runSummaryData.get(run);
+    }
+
     /**
      * Get state distribution data for a given run
      * 
@@ -132,6 +219,24 @@ public class SimulationOutput {
         this.susceptibleNum = susceptibleNum;
     }
 
+    /**
+     * Get the number of cases so far in the current run
+     * 
+     * @return Cumulative case count
+     */
+    public synchronized int getCumulativeCases() {
+        return cumulativeCases;
+    }
+
+    /**
+     * Check whether the epidemic has died out in the current run, with no one left exposed or infected
+     * 
+     * @return True if no individual is exposed, infectious, asymptomatic or symptomatic
+     */
+    public synchronized boolean isExtinct() {
+        return exposedNum + infectiousNum + asymptomaticNum + symptomaticMildNum + symptomaticSevereNum == 0;
+    }
+
     /**
      * Record susceptible-to-exposed transition
      */
@@ -241,7 +346,7 @@ public class SimulationOutput {
      * @param interventions Interventions to be simulated
      */
     public void initialise(int runs, Interventions interventions) {
-        this.runs = runs;
+        this.maxRuns = runs;
 
         // Initialise data lists
         stateDistributionData = new ArrayList<>();
@@ -251,6 +356,7 @@ public class SimulationOutput {
         hospitalisationData = new ArrayList<>();
         deathData = new ArrayList<>();
         vaccinationData = new ArrayList<>();
+        runSummaryData = new ArrayList<>();
 
         // Initialise count for each vaccine
         vaccinationCounts = new ArrayList<Integer>();
@@ -293,6 +399,7 @@ public class SimulationOutput {
         }
 
         // Update prevalent case data
+        peakPrevalentCases = Math.max(peakPrevalentCases, prevalentCases);
         prevalentCaseData.get(run).add(new ArrayList<>(Arrays.asList(timestamp, prevalentCases)));
 
         // Update cumulative case data
@@ -323,8 +430,10 @@ public class SimulationOutput {
         hospitalisationData.clear();
         deathData.clear();
         vaccinationData.clear();
+        runSummaryData.clear();
 
-        // Re-initialise data lists
+        // Re-initialise data lists for the maximum number of runs
+        runs = maxRuns;
         for (int i = 0; i < runs + 1; i++) {
             stateDistributionData.add(new ArrayList<>());
             incidentCaseData.add(new ArrayList<>());
@@ -354,6 +463,7 @@ public class SimulationOutput {
         hospitalisedNum = 0;
         incidentCases = 0;
         prevalentCases = 0;
+        peakPrevalentCases = 0;
         cumulativeCases = 0;
         for (int i = 0; i < vaccinationCounts.size(); i++) {
             vaccinationCounts.set(i, 0);
@@ -361,9 +471,66 @@ public class SimulationOutput {
     }
 
     /**
-     * Average output data across all runs at the end of the simulation
+     * Record the target metrics of the current run, once it has finished
      */
-    public void averageRuns() {
+    public void finishRun() {
+        runSummaryData.add(new ArrayList<>(Arrays.asList(peakPrevalentCases, cumulativeCases, deceasedNum)));
+    }
+
+    /**
+     * Check whether the confidence intervals of every target metric have converged over the completed runs
+     * 
+     * @param threshold Maximum half-width of each confidence interval, relative to the metric's mean,
+     *                  or 0 to never converge
+     * @return True if every confidence interval is within the threshold
+     */
+    public boolean hasConverged(float threshold) {
+        int n = runSummaryData.size();
+        if (threshold <= 0 || n < MIN_CONVERGENCE_RUNS) {
+            return false;
+        }
+        double t = new TDistribution(n - 1).inverseCumulativeProbability(0.5 + CONFIDENCE_LEVEL / 2);
+        for (int i = 0; i < runSummaryData.get(0).size(); i++) {
+            // Calculate sample mean and variance of the metric
+            double mean = 0;
+            for (List<Integer> summary : runSummaryData) {
+                mean += summary.get(i);
+            }
+            mean /= n;
+            double variance = 0;
+            for (List<Integer> summary : runSummaryData) {
+                double deviation = summary.get(i) - mean;
+                variance += deviation * deviation;
+            }
+            variance /= n - 1;
+
+            // Check the half-width of the metric's confidence interval
+            double halfWidth = t * Math.sqrt(variance / n);
+            if (halfWidth > threshold * mean) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Average output data across all completed runs at the end of the simulation,
+     * discarding the space reserved for runs that were not needed
+     * 
+     * @param completedRuns Number of runs completed
+     */
+    public void averageRuns(int completedRuns) {
+        if (completedRuns < runs) {
+            stateDistributionData.subList(completedRuns, runs).clear();
+            incidentCaseData.subList(completedRuns, runs).clear();
+            prevalentCaseData.subList(completedRuns, runs).clear();
+            cumulativeCaseData.subList(completedRuns, runs).clear();
+            hospitalisationData.subList(completedRuns, runs).clear();
+            deathData.subList(completedRuns, runs).clear();
+            vaccinationData.subList(completedRuns, runs).clear();
+            runs = completedRuns;
+        }
+
         // Average state distribution data
         for (int i = 0; i < stateDistributionData.get(0).size(); i++) {
             int susceptibleTotal = 0;
@@ -0,0 +1,36 @@
+package simulation.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a single step of the simulation, recording the simulated time
+ * and epidemic activity so that recordings can be correlated with the disease dynamics
+ */
+@Name("simulation.Step")
+@Label("Simulation Step")
+@Category("Simulation")
+@Description("A single time step of the simulation")
+public class StepEvent extends Event {
+
+    @Label("Run")
+    public int run;
+
+    @Label("Day")
+    public int day;
+
+    @Label("Time of Day")
+    @Description("Simulated time of day at the start of the step, in seconds since midnight")
+    public int time;
+
+    @Label("Agents Active")
+    @Description("Number of individuals who moved along a route during the step")
+    public long agentsActive;
+
+    @Label("New Infections")
+    @Description("Number of individuals exposed to the disease during the step")
+    public int newInfections;
+}
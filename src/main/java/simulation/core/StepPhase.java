@@ -0,0 +1,33 @@
+package simulation.core;
+
+/**
+ * Enum class for the timed phases of a simulation step
+ */
+public enum StepPhase {
+    STEP("Step"),
+    OUTPUT("Output Recording"),
+    MOVEMENT("Population Movement"),
+    OCCUPANCY("Occupancy Update"),
+    DISEASE("Disease Progression"),
+    COMPLIANCE("Compliance Update"),
+    INTERVENTIONS("Interventions"),
+    RESET("Run Reset");
+
+    private final String name;
+
+    /**
+     * Construct a new step phase
+     * @param name Phase name
+     */
+    StepPhase(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the step phase
+     * @return Phase name
+     */
+    public String getName() {
+        return name;
+    }
+}
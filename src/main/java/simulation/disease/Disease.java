@@ -1,15 +1,18 @@
 package simulation.disease;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.SplittableRandom;
 import java.util.concurrent.ScheduledExecutorService;
 
 import simulation.core.InitialisationException;
+import simulation.core.InitialisationStageEvent;
+import simulation.core.RandomStreams;
 import simulation.core.Simulation;
+import simulation.core.SimulationMetrics;
 import simulation.core.SimulationOutput;
+import simulation.interventions.InterventionPolicy;
 import simulation.interventions.Interventions;
+import simulation.interventions.Vaccine;
 import simulation.params.DiseaseParams;
 import simulation.population.AgeGroup;
 import simulation.population.Individual;
@@ -20,15 +23,50 @@ import simulation.population.Population;
  */
 public class Disease {
 
+    // Time step of the disease model, in days
+    private static final float TIME_STEP_DAYS = (float) Simulation.TIME_STEP / Simulation.DAY_LENGTH;
+
+    // Whether to evaluate transmission using SIMD instructions, requiring the jdk.incubator.vector module
+    public static final boolean VECTOR_TRANSMISSION = Boolean
+            .parseBoolean(System.getProperty("simulation.vectorTransmission", "false"));
+
+    // Vectorised transmission kernel, compiled separately against the jdk.incubator.vector module
+    private static final String VECTOR_KERNEL = "simulation.disease.VectorTransmissionKernel";
+
     // Required simulation components
     private DiseaseParams parameters;
     private Interventions interventions;
     private SimulationOutput output;
-    private List<Individual> individuals;
+    private Population population;
+    private SimulationMetrics metrics;
+
+    // Population indices, partially shuffled each run to choose the initial exposures
+    private int[] exposureOrder;
+
+    // Queue of individuals in order of vaccination
+    private VaccinationQueue vaccinationQueue;
 
-    // Vaccination trackers
-    private int vaccineNumber;
-    private float vaccinatedProportion;
+    // Seed for the disease's random streams
+    private long seed;
+
+    // Transmission kernel, and a block of transmission inputs for each population partition
+    private ITransmissionKernel kernel;
+    private TransmissionBlock[] blocks;
+
+    // Number of steps run, giving the disease model's clock
+    private int steps;
+
+    // Intervention policy which individuals' compliance was last computed for
+    private InterventionPolicy compliancePolicy;
+
+    /**
+     * Construct the disease model
+     * 
+     * @param metrics Performance metrics
+     */
+    public Disease(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     /**
      * Initialise the disease model for each individual of the population.
@@ -37,10 +75,11 @@ public class Disease {
      * @param population    Population
      * @param interventions Interventions
      * @param output        Output
+     * @param seed          Seed for the disease's random streams
      * @throws InitialisationException If parameters are invalid
      */
     public void initialise(DiseaseParams params, Population population, Interventions interventions,
-            SimulationOutput output) throws InitialisationException {
+            SimulationOutput output, long seed) throws InitialisationException {
 
         // Validate disease parameters by checking symptomatic probabilities
         for (AgeGroup ageGroup : AgeGroup.values()) {
@@ -60,38 +99,113 @@ public class Disease {
         this.parameters = params;
         this.interventions = interventions;
         this.output = output;
-        individuals = population.getIndividuals();
+        this.population = population;
+        this.seed = seed;
+        List<Individual> individuals = population.getIndividuals();
+        exposureOrder = new int[individuals.size()];
+        vaccinationQueue = new VaccinationQueue(individuals, params);
+
+        // Initialise the transmission kernel and blocks
+        kernel = VECTOR_TRANSMISSION ? createVectorKernel() : new ScalarTransmissionKernel();
+        blocks = new TransmissionBlock[population.getPartitionNum()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new TransmissionBlock();
+        }
 
         // Initialise health for each individual
+        InitialisationStageEvent healthEvent = new InitialisationStageEvent("Disease", "Initialise health");
         for (Individual individual : individuals) {
             Health health = new Health(parameters, interventions, output, individual);
             individual.setHealth(health);
         }
+        healthEvent.commit();
 
         // Set the initial state of the disease
-        reset();
+        InitialisationStageEvent seedEvent = new InitialisationStageEvent("Disease", "Seed outbreak");
+        reset(0);
+        seedEvent.commit();
+    }
+
+    /**
+     * Load the vectorised transmission kernel, which is only linked when it is enabled
+     * 
+     * @return Vectorised transmission kernel
+     * @throws InitialisationException If the kernel or the jdk.incubator.vector module is unavailable
+     */
+    private static ITransmissionKernel createVectorKernel() throws InitialisationException {
+        try {
+            return (ITransmissionKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new InitialisationException(
+                    "Vectorised transmission requires the jdk.incubator.vector module: " + e);
+        }
     }
 
     /**
      * Reset disease for a new simulation run
+     * 
+     * @param run Run number, selecting the random streams for the run
      */
-    public void reset() {
-        // Reset population health and expose initial individuals as the seed for spread
+    public void reset(int run) {
+        SplittableRandom random = RandomStreams.create(RandomStreams.derive(seed, RandomStreams.OUTBREAK), run);
+        List<Individual> individuals = population.getIndividuals();
+
+        // Reset population health
         output.setSusceptibleNum(individuals.size());
+        for (Individual individual : individuals) {
+            individual.getHealth().reset(run);
+        }
+
+        // Expose random initial individuals as the seed for spread, chosen by partially shuffling
+        // the population indices, so that the population's order is unchanged
         int exposedNum = Math.min(individuals.size(), parameters.getInitialInfected().getValue());
-        Collections.shuffle(individuals);
-        for (int i = 0; i < individuals.size(); i++) {
-            Health health = individuals.get(i).getHealth();
-            health.reset();
-            if (i < exposedNum) {
-                health.transition(HealthState.EXPOSED);
-                output.countSusceptibleToExposed();
-            }
+        for (int i = 0; i < exposureOrder.length; i++) {
+            exposureOrder[i] = i;
+        }
+        for (int i = 0; i < exposedNum; i++) {
+            int j = i + random.nextInt(exposureOrder.length - i);
+            int swap = exposureOrder[i];
+            exposureOrder[i] = exposureOrder[j];
+            exposureOrder[j] = swap;
+            individuals.get(exposureOrder[i]).getHealth().transition(HealthState.EXPOSED, 0);
+            output.countSusceptibleToExposed();
+        }
+
+        // Order vaccinations from the rest of the run's stream
+        vaccinationQueue.reset(random);
+
+        steps = 0;
+        compliancePolicy = null;
+    }
+
+    /**
+     * Recompute each individual's compliance with interventions if the policy has changed since
+     * it was last computed, before the step's movement and disease progression
+     * 
+     * @param scheduler Scheduled executor service for multithreading
+     */
+    public void updateCompliance(ScheduledExecutorService scheduler) {
+        InterventionPolicy policy = interventions.getPolicy();
+        if (policy != compliancePolicy) {
+            population.forEach(scheduler, individual -> individual.getHealth().updateCompliance(policy));
+            compliancePolicy = policy;
         }
-        Collections.shuffle(individuals);
+    }
 
-        vaccineNumber = 0;
-        vaccinatedProportion = 0;
+    /**
+     * Count the individuals who comply with all of the given interventions under the current policy
+     * 
+     * @param flags Bitmask of intervention policy flags
+     * @return Number of compliant individuals
+     */
+    public int getCompliantNum(int flags) {
+        int compliantNum = 0;
+        for (Individual individual : population.getIndividuals()) {
+            if (individual.getHealth().isCompliant(flags)) {
+                compliantNum++;
+            }
+        }
+        return compliantNum;
     }
 
     /**
@@ -101,38 +215,70 @@ public class Disease {
      * @param dayTime   Current time of day
      */
     public void step(ScheduledExecutorService scheduler, int dayTime) {
-        float timeStepDays = (float) Simulation.TIME_STEP / Simulation.DAY_LENGTH;
+        advance();
 
-        // Administer vaccinations if intervention is active
-        if (interventions.isVaccinationActive()) {
-            if (vaccineNumber < interventions.getVaccineNumber()) {
-                vaccineNumber = interventions.getVaccineNumber();
-                vaccinatedProportion = 0;
-            }
-            float newProportion = Math.min(1, vaccinatedProportion
-                    + interventions.getVaccinationRate() / interventions.getVaccinationCompliance()
-                            * timeStepDays);
-            for (int i = (int) (vaccinatedProportion * individuals.size()); i < (int) (newProportion
-                    * individuals.size()); i++) {
-                if (i < individuals.size()) {
-                    individuals.get(i).getHealth().vaccinate();
-                }
+        // Progress disease for each individual using multithreading
+        float time = getTime();
+        population.forEach(scheduler, individual -> {
+            if (SimulationMetrics.ENABLED && individual.getHealth().getState() == HealthState.SUSCEPTIBLE) {
+                metrics.countContactsEvaluated(individual.getContacts().size());
             }
-            vaccinatedProportion = newProportion;
-        }
+            individual.getHealth().step(time, TIME_STEP_DAYS);
+        });
+    }
 
-        // Progress disease for each individual using multithreading
-        List<Callable<Void>> tasks = new ArrayList<>();
-        for (Individual individual : individuals) {
-            tasks.add(() -> {
-                individual.getHealth().step(timeStepDays);
-                return null;
-            });
-        }
-        try {
-            scheduler.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    /**
+     * Advance the disease model's clock by one step and administer the step's vaccinations,
+     * before any individual's health is progressed
+     */
+    public void advance() {
+        steps++;
+        vaccinate();
+    }
+
+    /**
+     * Progress an individual's disease states which do not depend on contacts,
+     * for use in a step fused with the individual's movement
+     * 
+     * @param individual Individual to progress
+     */
+    public void progress(Individual individual) {
+        individual.getHealth().progress(getTime(), TIME_STEP_DAYS);
+    }
+
+    /**
+     * Transmit the disease to susceptible individuals from their contacts,
+     * completing a step fused with movement once occupancy has been updated.
+     * Each partition's susceptible individuals are evaluated as a block by the transmission kernel.
+     * 
+     * @param scheduler Scheduled executor service for multithreading
+     */
+    public void transmit(ScheduledExecutorService scheduler) {
+        float time = getTime();
+        float baseTransmissibility = parameters.getTransmissionRate().getValue() * TIME_STEP_DAYS;
+        population.forEachPartition(scheduler, (partition, partitionIndividuals) -> metrics.countContactsEvaluated(
+                blocks[partition].transmit(partitionIndividuals, time, baseTransmissibility, kernel)));
+    }
+
+    /**
+     * Get the disease model's current time since the start of the run
+     * 
+     * @return Time in days
+     */
+    private float getTime() {
+        return steps * TIME_STEP_DAYS;
+    }
+
+    /**
+     * Administer vaccinations for the current step for each active vaccine,
+     * giving the step's share of its daily doses to the next individuals in its vaccination queue
+     */
+    private void vaccinate() {
+        InterventionPolicy policy = interventions.getPolicy();
+        for (int i = 0; i < policy.getVaccineCount(); i++) {
+            Vaccine vaccine = policy.getVaccine(i);
+            float doses = vaccine.getRate() * population.getIndividuals().size() * TIME_STEP_DAYS;
+            vaccinationQueue.vaccinate(vaccine, doses, getTime());
         }
     }
 }
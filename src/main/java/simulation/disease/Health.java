@@ -1,7 +1,13 @@
 package simulation.disease;
 
+import java.util.SplittableRandom;
+
+import simulation.core.RandomStreams;
 import simulation.core.SimulationOutput;
+import simulation.interventions.InterventionPolicy;
 import simulation.interventions.Interventions;
+import simulation.interventions.Vaccine;
+import simulation.environment.Room;
 import simulation.params.DiseaseParams;
 import simulation.population.Activity;
 import simulation.population.AgeGroup;
@@ -19,11 +25,11 @@ public class Health {
     private SimulationOutput output;
     private Individual individual;
 
-    // Health state
+    // Health state, with the time it was entered and the time of its scheduled transition (in days)
     private HealthState state;
-    private float timeInState;
+    private float stateEntryTime;
+    private float nextTransitionTime;
     private float timeInHospital;
-    private float infectiousness;
     private boolean diagnosed;
 
     // Intervention state
@@ -35,6 +41,8 @@ public class Health {
     private boolean quarantining;
     private float timeInQuarantine;
     private int vaccineNumber;
+    private int vaccineDoses;
+    private float lastDoseTime;
     private float vaccineTransmissibilityMultiplier;
     private float vaccineSeverityMultiplier;
 
@@ -54,6 +62,12 @@ public class Health {
     private float symptomMildness; // lack of severity in symptoms (0 = death, 1 = asymptomatic)
     private float interventionResistance; // non-compliance with interventions (0 = full compliance, 1 = no compliance)
 
+    // Interventions the individual complies with under the current policy, as a bitmask of policy flags
+    private int compliance;
+
+    // Random stream for the individual's health in the current run
+    private SplittableRandom random;
+
     /**
      * Construct a new Health object for a given individual.
      * 
@@ -67,7 +81,7 @@ public class Health {
         this.interventions = interventions;
         this.output = output;
         this.individual = individual;
-        reset();
+        reset(0);
     }
 
     /**
@@ -88,12 +102,25 @@ public class Health {
     }
 
     /**
-     * Get the individual's current infectiousness
+     * Get the individual's infectiousness at a given time, based on their time in the current state
      * 
+     * @param time Current time in days
      * @return Infectiousness
      */
-    public float getInfectiousness() {
-        return infectiousness;
+    public float getInfectiousness(float time) {
+        float timeInState = time - stateEntryTime;
+        switch (state) {
+            case INFECTIOUS:
+                return timeInState / infectiousToSymptomaticPeriod;
+            case ASYMPTOMATIC:
+                return 1 - (timeInState / asymptomaticToRecoveredPeriod);
+            case SYMPTOMATIC_MILD:
+                return isWorsening() ? 1 : 1 - (timeInState / mildSymptomaticToRecoveredPeriod);
+            case SYMPTOMATIC_SEVERE:
+                return 1 - (timeInState / severeSymptomaticToRecoveredPeriod);
+            default:
+                return 0;
+        }
     }
 
     /**
@@ -123,172 +150,180 @@ public class Health {
         return isolating || quarantining;
     }
 
+    /**
+     * Check if the individual complies with all of the given interventions under the current policy
+     * 
+     * @param flags Bitmask of policy flags
+     * @return True if the individual complies with all of the interventions
+     */
+    public boolean isCompliant(int flags) {
+        return (compliance & flags) == flags;
+    }
+
+    /**
+     * Recompute the interventions the individual complies with, after the policy has changed
+     * 
+     * @param policy New intervention policy
+     */
+    public void updateCompliance(InterventionPolicy policy) {
+        compliance = policy.getCompliance(interventionResistance);
+    }
+
     /**
      * Check if lockdown is active and the individual is compliant
      * 
      * @return True if the individual is in lockdown
      */
     public boolean inLockdown() {
-        return interventions.isLockdownActive() && interventionResistance < interventions.getLockdownCompliance();
+        return (compliance & InterventionPolicy.LOCKDOWN) != 0;
     }
 
     /**
-     * Vaccinate the individual if they are compliant and not already vaccinated
-     * with the current vaccine
+     * Check whether the individual has received a given number of doses of a vaccine,
+     * and no doses of any vaccine started since
+     * 
+     * @param vaccine Vaccine
+     * @param dose    Number of doses
+     * @return True if the individual's course of the vaccine is at the given dose
      */
-    public void vaccinate() {
-        if (interventionResistance < interventions.getVaccinationCompliance()
-                && vaccineNumber < interventions.getVaccineNumber()) {
-            vaccineNumber = interventions.getVaccineNumber();
-            vaccineTransmissibilityMultiplier = 1 - interventions.getVaccinationSusceptibilityReduction();
-            vaccineSeverityMultiplier = 1 - interventions.getVaccinationSeverityReduction();
+    public boolean hasDose(Vaccine vaccine, int dose) {
+        return state != HealthState.DECEASED && vaccineNumber == vaccine.getNumber() && vaccineDoses == dose;
+    }
+
+    /**
+     * Check whether the vaccine's dose interval has passed since the individual's last dose
+     * 
+     * @param vaccine Vaccine
+     * @param time    Current time in days
+     * @return True if the individual's next dose is due
+     */
+    public boolean isDoseDue(Vaccine vaccine, float time) {
+        return time - lastDoseTime >= vaccine.getDoseInterval();
+    }
+
+    /**
+     * Give the individual their next dose of a vaccine, if they are alive and either part way through its
+     * course or compliant and not already vaccinated with it or a vaccine started since
+     * 
+     * @param vaccine Vaccine
+     * @param time    Current time in days
+     * @return True if the individual was given a dose
+     */
+    public boolean vaccinate(Vaccine vaccine, float time) {
+        if (state == HealthState.DECEASED) {
+            return false;
+        }
+        if (vaccineNumber == vaccine.getNumber()) {
+            // Continue the course of the vaccine
+            if (vaccineDoses >= vaccine.getDoses()) {
+                return false;
+            }
+            vaccineDoses++;
+        } else if (vaccineNumber < vaccine.getNumber() && interventionResistance < vaccine.getCompliance()) {
+            // Start a new course of the vaccine
+            vaccineNumber = vaccine.getNumber();
+            vaccineDoses = 1;
             output.countVaccination(vaccineNumber);
+        } else {
+            return false;
         }
+        lastDoseTime = time;
+        vaccineTransmissibilityMultiplier = vaccine.getTransmissibilityMultiplier(vaccineDoses);
+        vaccineSeverityMultiplier = vaccine.getSeverityMultiplier(vaccineDoses);
+
+        // Reschedule mild symptoms, as their outcome depends on the vaccine
+        if (state == HealthState.SYMPTOMATIC_MILD) {
+            schedule();
+        }
+        return true;
     }
 
     /**
-     * Transition to a new health state
+     * Transition to a new health state, scheduling the time of its next transition
      * 
      * @param newState New health state
+     * @param time     Current time in days
      */
-    public void transition(HealthState newState) {
+    public void transition(HealthState newState, float time) {
         state = newState;
-        timeInState = 0;
+        stateEntryTime = time;
+        schedule();
     }
 
     /**
      * Update health of the individual based on disease model and interventions
      * 
+     * @param time     Current time in days
      * @param timeStep Time elapsed since last update
      */
-    public void step(float timeStep) {
-        // Update time in current state
-        timeInState += timeStep;
+    public void step(float time, float timeStep) {
+        progress(time, timeStep);
+        transmit(time, timeStep);
+    }
 
+    /**
+     * Progress the individual's interventions and non-susceptible health states,
+     * which do not depend on contact with other individuals
+     * 
+     * @param time     Current time in days
+     * @param timeStep Time elapsed since last update
+     */
+    public void progress(float time, float timeStep) {
         // Handle isolation, testing, and quarantine if active and compliance is met
-        if (interventions.isIsolationActive() && interventionResistance < interventions.getIsolationCompliance()) {
+        InterventionPolicy policy = interventions.getPolicy();
+        if ((compliance & InterventionPolicy.ISOLATION) != 0) {
             isolationUpdate();
         }
-        if (interventions.isTestingActive() && interventionResistance < interventions.getTestCompliance()) {
-            testUpdate(timeStep);
+        if ((compliance & InterventionPolicy.TESTING) != 0) {
+            testUpdate(policy, timeStep);
         }
-        if (interventions.isTracingAndQuarantineActive()
-                && interventionResistance < interventions.getQuarantineCompliance()) {
-            traceUpdate(timeStep);
-            quarantineUpdate(timeStep);
+        if ((compliance & InterventionPolicy.QUARANTINE) != 0) {
+            traceUpdate(policy, timeStep);
+            quarantineUpdate(policy, timeStep);
+        }
+
+        // Skip the disease model until the individual's scheduled transition is due
+        if (time < nextTransitionTime) {
+            return;
         }
 
         // Update health state based on current state and time in state
+        float timeInState = time - stateEntryTime;
         switch (state) {
-            case SUSCEPTIBLE:
-                // Calculate infectivity as the total infectiousness of close contacts
-                float infectivity = 0;
-                for (Individual contact : individual.getContacts()) {
-                    // Check if contact is 'close' based on social distancing, and skip if not
-                    if (interventions.isSocialDistancingActive()
-                            && Math.max(interventionResistance,
-                                    contact.getHealth().getInterventionResistance()) < interventions
-                                            .getSocialDistancingCompliance()
-                            && Math.random() < interventions.getSocialDistancingEffectiveness()) {
-                        continue;
-                    }
-                    // Mark close contact for tracing if conditions are met
-                    if (interventions.isTracingAndQuarantineActive()
-                            && interventionResistance < interventions.getQuarantineCompliance()
-                            && contact.getHealth().isDiagnosed()
-                            && !quarantining
-                            && Math.random() < interventions.getTracingEffectiveness()) {
-                        tracePending = true;
-                        timeSinceContact = 0;
-                    }
-                    // Get contact's base infectiousness
-                    float infectiousness = contact.getHealth().getInfectiousness();
-                    // Adjust infectiousness based on exhalation mask protection
-                    if (interventions.isMaskWearingActive()) {
-                        infectiousness *= contact.getHealth().getInterventionResistance() < interventions
-                                .getMaskCompliance()
-                                        ? 1 - interventions.getMaskExhalationProtection()
-                                        : 1;
-                    }
-                    // Add infectiousness to total infecticity
-                    infectivity += infectiousness;
-                }
-                // Get base transmissibility
-                float transmissibility = params.getTransmissionRate().getValue() * timeStep;
-                // Adjust transmissibility based on infectivity (which may be zero)
-                transmissibility *= infectivity;
-                // Adjust transmissibility based on inhalation mask protection
-                if (interventions.isMaskWearingActive()) {
-                    transmissibility *= interventionResistance < interventions.getMaskCompliance()
-                            ? 1 - interventions.getMaskInhalationProtection()
-                            : 1;
-                }
-                // Adjust transmissibility based on vaccination
-                transmissibility *= vaccineTransmissibilityMultiplier;
-                // Transmit disease with some probability based on calculated transmissibility
-                if (Math.random() < 1 - Math.exp(-transmissibility)) {
-                    transition(HealthState.EXPOSED);
-                    output.countSusceptibleToExposed();
-                }
-                break;
             case EXPOSED:
-                // Check if latency period has ended
-                if (timeInState >= exposedToInfectiousPeriod) {
-                    // Transition to infectious state
-                    transition(HealthState.INFECTIOUS);
-                    output.countExposedToInfectious();
-                }
+                // Transition to infectious state once latency period has ended
+                transition(HealthState.INFECTIOUS, time);
+                output.countExposedToInfectious();
                 break;
             case INFECTIOUS:
-                // Calculate infectiousness based on time in state
-                infectiousness = timeInState / infectiousToSymptomaticPeriod;
-                // Check if incubation period has ended
-                if (timeInState >= infectiousToSymptomaticPeriod) {
-                    infectiousness = 1;
-                    // Branch based on symptom severity and vaccine multiplier
-                    if (symptomMildness < symptomaticProbability * vaccineSeverityMultiplier) {
-                        diagnosed = true;
-                        // Transition to mild symptomatic state
-                        transition(HealthState.SYMPTOMATIC_MILD);
-                        output.countInfectiousToSymptomaticMild();
-                    } else {
-                        // Transition to asymptomatic state
-                        transition(HealthState.ASYMPTOMATIC);
-                        output.countInfectiousToAsymptomatic();
-                    }
+                // Branch based on symptom severity and vaccine multiplier once incubation period has ended
+                if (symptomMildness < symptomaticProbability * vaccineSeverityMultiplier) {
+                    diagnosed = true;
+                    // Transition to mild symptomatic state
+                    transition(HealthState.SYMPTOMATIC_MILD, time);
+                    output.countInfectiousToSymptomaticMild();
+                } else {
+                    // Transition to asymptomatic state
+                    transition(HealthState.ASYMPTOMATIC, time);
+                    output.countInfectiousToAsymptomatic();
                 }
                 break;
             case ASYMPTOMATIC:
-                // Calculate infectiousness based on time in state
-                infectiousness = 1 - (timeInState / asymptomaticToRecoveredPeriod);
-                // Check if asymptomatic period has ended
-                if (timeInState >= asymptomaticToRecoveredPeriod) {
-                    infectiousness = 0;
-                    // Transition to recovered state
-                    transition(HealthState.RECOVERED);
-                    output.countAsymptomaticToRecovered();
-                }
+                // Transition to recovered state once asymptomatic period has ended
+                transition(HealthState.RECOVERED, time);
+                output.countAsymptomaticToRecovered();
                 break;
             case SYMPTOMATIC_MILD:
                 // Branch based on severe symptom probability and vaccine multiplier
-                if (symptomMildness < severeSymptomaticProbability * vaccineSeverityMultiplier) {
-                    // Check if symptom worsening period has ended
-                    if (timeInState >= mildToSevereSymptomaticPeriod) {
-                        // Transition to severe symptomatic state
-                        transition(HealthState.SYMPTOMATIC_SEVERE);
-                        output.countSymptomaticMildToSymptomaticSevere();
-                    }
+                if (isWorsening()) {
+                    // Transition to severe symptomatic state once symptom worsening period has ended
+                    transition(HealthState.SYMPTOMATIC_SEVERE, time);
+                    output.countSymptomaticMildToSymptomaticSevere();
                 } else {
-                    // Calculate infectiousness based on time in state
-                    infectiousness = 1 - (timeInState / mildSymptomaticToRecoveredPeriod);
-                    // Check if recovery period has ended
-                    if (timeInState >= mildSymptomaticToRecoveredPeriod) {
-                        infectiousness = 0;
-                        diagnosed = false;
-                        // Transition to recovered state
-                        transition(HealthState.RECOVERED);
-                        output.countSymptomaticMildToRecovered();
-                    }
+                    diagnosed = false;
+                    // Transition to recovered state once recovery period has ended
+                    transition(HealthState.RECOVERED, time);
+                    output.countSymptomaticMildToRecovered();
                 }
                 break;
             case SYMPTOMATIC_SEVERE:
@@ -301,27 +336,20 @@ public class Health {
                 }
                 // Branch based on mortality probability and mortality multiplier
                 if (symptomMildness < mortalityProbability * mortalityMultiplier) {
-                    // Calculate infectiousness based on time in state
-                    infectiousness = 1 - (timeInState / severeSymptomaticToRecoveredPeriod);
                     // Check if dying period has ended
                     if (timeInState >= severeSymptomaticToDeathPeriod) {
                         diagnosed = false;
                         // Transition to deceased state
-                        transition(HealthState.DECEASED);
-                        if (individual.getActivity() == Activity.HOPSITALISATION) {
-                            individual.getHospital().dischargePatient(output);
-                        }
+                        transition(HealthState.DECEASED, time);
+                        individual.leaveHospital();
                         output.countSymptomaticSevereToDeceased();
                     }
                 } else {
-                    // Calculate infectiousness based on time in state
-                    infectiousness = 1 - (timeInState / severeSymptomaticToRecoveredPeriod);
                     // Check if recovery period has ended
                     if (timeInState >= severeSymptomaticToRecoveredPeriod) {
-                        infectiousness = 0;
                         diagnosed = false;
                         // Transition to recovered state
-                        transition(HealthState.RECOVERED);
+                        transition(HealthState.RECOVERED, time);
                         output.countSymptomaticSevereToRecovered();
                     }
                 }
@@ -330,20 +358,120 @@ public class Health {
         }
     }
 
+    /**
+     * Expose the individual to the disease with some probability if susceptible,
+     * based on the infectiousness of their contacts
+     * 
+     * @param time     Current time in days
+     * @param timeStep Time elapsed since last update
+     */
+    public void transmit(float time, float timeStep) {
+        if (state != HealthState.SUSCEPTIBLE) {
+            return;
+        }
+
+        // Get base transmissibility
+        float transmissibility = params.getTransmissionRate().getValue() * timeStep;
+        // Adjust transmissibility based on infectivity (which may be zero)
+        transmissibility *= getContactInfectivity(time);
+        // Adjust transmissibility based on inhalation mask protection and vaccination
+        transmissibility *= getSusceptibility();
+        // Transmit disease with some probability based on calculated transmissibility
+        if (random.nextDouble() < 1 - Math.exp(-transmissibility)) {
+            expose(time);
+        }
+    }
+
+    /**
+     * Calculate infectivity as the total infectiousness of the individual's close contacts,
+     * marking the individual for tracing if they are in close contact with a diagnosed individual
+     * 
+     * @param time Current time in days
+     * @return Infectivity
+     */
+    public float getContactInfectivity(float time) {
+        float infectivity = 0;
+        InterventionPolicy policy = interventions.getPolicy();
+        boolean traceable = (compliance & InterventionPolicy.QUARANTINE) != 0 && !quarantining;
+        Room contacts = individual.getContacts();
+        for (int i = 0; i < contacts.size(); i++) {
+            Individual contact = contacts.get(i);
+            Health contactHealth = contact.getHealth();
+            // Check if contact is 'close' based on social distancing, and skip if not
+            if ((compliance & contactHealth.compliance & InterventionPolicy.SOCIAL_DISTANCING) != 0
+                    && random.nextDouble() < policy.getSocialDistancingEffectiveness()) {
+                continue;
+            }
+            // Mark close contact for tracing if conditions are met
+            if (traceable
+                    && contactHealth.isDiagnosed()
+                    && random.nextDouble() < policy.getTracingEffectiveness()) {
+                tracePending = true;
+                timeSinceContact = 0;
+            }
+            // Get contact's base infectiousness
+            float infectiousness = contactHealth.getInfectiousness(time);
+            // Adjust infectiousness based on exhalation mask protection
+            if ((contactHealth.compliance & InterventionPolicy.MASKS) != 0) {
+                infectiousness *= policy.getMaskExhalationMultiplier();
+            }
+            // Add infectiousness to total infecticity
+            infectivity += infectiousness;
+        }
+        return infectivity;
+    }
+
+    /**
+     * Get the multiplier applied to transmissibility for the individual,
+     * based on inhalation mask protection and vaccination
+     * 
+     * @return Susceptibility multiplier
+     */
+    public float getSusceptibility() {
+        float susceptibility = vaccineTransmissibilityMultiplier;
+        if ((compliance & InterventionPolicy.MASKS) != 0) {
+            susceptibility *= interventions.getPolicy().getMaskInhalationMultiplier();
+        }
+        return susceptibility;
+    }
+
+    /**
+     * Draw a uniform random number from the individual's health stream
+     * 
+     * @return Random number between 0 and 1
+     */
+    float nextRandom() {
+        return random.nextFloat();
+    }
+
+    /**
+     * Expose the susceptible individual to the disease
+     * 
+     * @param time Current time in days
+     */
+    public void expose(float time) {
+        transition(HealthState.EXPOSED, time);
+        output.countSusceptibleToExposed();
+    }
+
     /**
      * Reset health/intervention states and initialise personal parameters
+     * 
+     * @param run Run number, selecting the individual's random stream for the run
      */
-    public void reset() {
+    public void reset(int run) {
+        random = RandomStreams.create(RandomStreams.derive(individual.getSeed(), run), RandomStreams.HEALTH);
         // Reset health and intervention states
-        transition(HealthState.SUSCEPTIBLE);
-        timeInState = 0;
+        transition(HealthState.SUSCEPTIBLE, 0);
         timeInHospital = 0;
-        infectiousness = 0;
         diagnosed = false;
         isolating = false;
         quarantining = false;
         testResultPending = false;
         tracePending = false;
+        vaccineNumber = 0;
+        vaccineDoses = 0;
+        lastDoseTime = 0;
         vaccineTransmissibilityMultiplier = 1;
         vaccineSeverityMultiplier = 1;
 
@@ -352,17 +480,57 @@ public class Health {
         symptomaticProbability = params.getSymptomaticProbability().getValue(ageGroup).getValue();
         severeSymptomaticProbability = params.getSevereSymptomaticProbability().getValue(ageGroup).getValue();
         mortalityProbability = params.getMortalityProbability().getValue(ageGroup).getValue();
-        exposedToInfectiousPeriod = params.getExposedToInfectiousPeriod().sample();
-        infectiousToSymptomaticPeriod = params.getInfectiousToSymptomaticPeriod().sample();
-        mildToSevereSymptomaticPeriod = params.getMildToSevereSymptomaticPeriod().sample();
-        severeSymptomaticToDeathPeriod = params.getSevereSymptomaticToDeathPeriod().sample();
-        asymptomaticToRecoveredPeriod = params.getAsymptomaticToRecoveredPeriod().sample();
-        mildSymptomaticToRecoveredPeriod = params.getMildSymptomaticToRecoveredPeriod().sample();
-        severeSymptomaticToRecoveredPeriod = params.getSevereSymptomaticToRecoveredPeriod().sample();
+        exposedToInfectiousPeriod = params.getExposedToInfectiousPeriod().sample(random);
+        infectiousToSymptomaticPeriod = params.getInfectiousToSymptomaticPeriod().sample(random);
+        mildToSevereSymptomaticPeriod = params.getMildToSevereSymptomaticPeriod().sample(random);
+        severeSymptomaticToDeathPeriod = params.getSevereSymptomaticToDeathPeriod().sample(random);
+        asymptomaticToRecoveredPeriod = params.getAsymptomaticToRecoveredPeriod().sample(random);
+        mildSymptomaticToRecoveredPeriod = params.getMildSymptomaticToRecoveredPeriod().sample(random);
+        severeSymptomaticToRecoveredPeriod = params.getSevereSymptomaticToRecoveredPeriod().sample(random);
 
         // Pre-generate random values for symptom mildness and intervention resistance
-        symptomMildness = (float) Math.random();
-        interventionResistance = (float) Math.random();
+        symptomMildness = random.nextFloat();
+        interventionResistance = random.nextFloat();
+        compliance = 0;
+    }
+
+    /**
+     * Check if the individual's mild symptoms will worsen rather than recover,
+     * based on severe symptom probability and vaccine multiplier
+     * 
+     * @return True if mild symptoms will become severe
+     */
+    private boolean isWorsening() {
+        return symptomMildness < severeSymptomaticProbability * vaccineSeverityMultiplier;
+    }
+
+    /**
+     * Schedule the time of the next transition from the current health state.
+     * Transitions are deterministic once their period has been sampled, so the disease
+     * model can skip an individual entirely until their scheduled transition is due.
+     */
+    private void schedule() {
+        switch (state) {
+            case EXPOSED:
+                nextTransitionTime = stateEntryTime + exposedToInfectiousPeriod;
+                break;
+            case INFECTIOUS:
+                nextTransitionTime = stateEntryTime + infectiousToSymptomaticPeriod;
+                break;
+            case ASYMPTOMATIC:
+                nextTransitionTime = stateEntryTime + asymptomaticToRecoveredPeriod;
+                break;
+            case SYMPTOMATIC_MILD:
+                nextTransitionTime = stateEntryTime
+                        + (isWorsening() ? mildToSevereSymptomaticPeriod : mildSymptomaticToRecoveredPeriod);
+                break;
+            case SYMPTOMATIC_SEVERE:
+                // Mortality depends on time spent in hospital, so severe symptoms are updated every step
+                nextTransitionTime = stateEntryTime;
+                break;
+            default:
+                nextTransitionTime = Float.POSITIVE_INFINITY;
+        }
     }
 
     /**
@@ -375,17 +543,18 @@ public class Health {
     /**
      * Update testing procedure for the individual
      * 
+     * @param policy   Active intervention policy
      * @param timeStep Time elapsed since last update
      */
-    private void testUpdate(float timeStep) {
+    private void testUpdate(InterventionPolicy policy, float timeStep) {
         if (testResultPending) {
             // Wait for test result
             timeSinceTest += timeStep;
-            if (timeSinceTest >= interventions.getTestWaitTime()) {
+            if (timeSinceTest >= policy.getTestWaitTime()) {
                 // Generate test result based on false positive/negative rates
-                if (state.isInfected() && Math.random() > interventions.getTestFalseNegativeRate()) {
+                if (state.isInfected() && random.nextDouble() > policy.getTestFalseNegativeRate()) {
                     diagnosed = true;
-                } else if (!state.isInfected() && Math.random() < interventions.getTestFalsePositiveRate()) {
+                } else if (!state.isInfected() && random.nextDouble() < policy.getTestFalsePositiveRate()) {
                     diagnosed = true;
                 } else {
                     diagnosed = false;
@@ -394,7 +563,7 @@ public class Health {
             }
         } else {
             // Randomly test individual based on average frequency
-            if (Math.random() < interventions.getTestFrequency() * timeStep) {
+            if (random.nextDouble() < policy.getTestFrequency() * timeStep) {
                 testResultPending = true;
                 timeSinceTest = 0;
             }
@@ -404,13 +573,14 @@ public class Health {
     /**
      * Update contact tracing procedure for the individual
      * 
+     * @param policy   Active intervention policy
      * @param timeStep Time elapsed since last update
      */
-    private void traceUpdate(float timeStep) {
+    private void traceUpdate(InterventionPolicy policy, float timeStep) {
         if (tracePending) {
             // Wait for tracing to complete
             timeSinceContact += timeStep;
-            if (timeSinceContact >= interventions.getTracingWaitTime()) {
+            if (timeSinceContact >= policy.getTracingWaitTime()) {
                 // Mark close contact for quarantining
                 tracePending = false;
                 quarantining = true;
@@ -422,13 +592,14 @@ public class Health {
     /**
      * Update quarantine prodecure for the individual
      * 
+     * @param policy   Active intervention policy
      * @param timeStep Time elapsed since last update
      */
-    private void quarantineUpdate(float timeStep) {
+    private void quarantineUpdate(InterventionPolicy policy, float timeStep) {
         if (quarantining) {
             // Wait for quarantine period to end
             timeInQuarantine += timeStep;
-            if (timeInQuarantine >= interventions.getMinQuarantineTime()) {
+            if (timeInQuarantine >= policy.getMinQuarantineTime()) {
                 // End quarantine period
                 quarantining = false;
             }
@@ -0,0 +1,20 @@
+package simulation.disease;
+
+/**
+ * Interface to represent a kernel evaluating disease transmission for a block of susceptible individuals
+ */
+public interface ITransmissionKernel {
+    /**
+     * Evaluate whether each susceptible individual in a block is exposed, with transmission
+     * probability 1 - exp(-baseTransmissibility * infectivity * susceptibility)
+     * 
+     * @param baseTransmissibility Transmission rate multiplied by the time step
+     * @param infectivity          Infectivity of each individual's contacts
+     * @param susceptibility       Susceptibility multiplier of each individual
+     * @param draws                Uniform random draw for each individual
+     * @param exposed              Output flags, set true for each individual exposed
+     * @param length               Number of individuals in the block
+     */
+    public void evaluate(float baseTransmissibility, float[] infectivity, float[] susceptibility, float[] draws,
+            boolean[] exposed, int length);
+}
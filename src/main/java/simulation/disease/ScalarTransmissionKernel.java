@@ -0,0 +1,16 @@
+package simulation.disease;
+
+/**
+ * Class evaluating disease transmission one individual at a time
+ */
+public class ScalarTransmissionKernel implements ITransmissionKernel {
+
+    @Override
+    public void evaluate(float baseTransmissibility, float[] infectivity, float[] susceptibility, float[] draws,
+            boolean[] exposed, int length) {
+        for (int i = 0; i < length; i++) {
+            float transmissibility = baseTransmissibility * infectivity[i] * susceptibility[i];
+            exposed[i] = draws[i] < 1 - Math.exp(-transmissibility);
+        }
+    }
+}
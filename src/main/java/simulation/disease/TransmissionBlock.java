@@ -0,0 +1,92 @@
+package simulation.disease;
+
+import java.util.Arrays;
+import java.util.List;
+
+import simulation.population.Individual;
+
+/**
+ * Class holding a partition's susceptible individuals as columns of transmission inputs,
+ * so that a transmission kernel can evaluate them as a single block
+ */
+public class TransmissionBlock {
+
+    // Initial number of individuals allocated for a block
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Columns of susceptible individuals and their transmission inputs and outputs
+    private Health[] susceptibles;
+    private float[] infectivity;
+    private float[] susceptibility;
+    private float[] draws;
+    private boolean[] exposed;
+    private int size;
+
+    /**
+     * Construct an empty transmission block
+     */
+    public TransmissionBlock() {
+        susceptibles = new Health[INITIAL_CAPACITY];
+        infectivity = new float[INITIAL_CAPACITY];
+        susceptibility = new float[INITIAL_CAPACITY];
+        draws = new float[INITIAL_CAPACITY];
+        exposed = new boolean[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Transmit the disease to the susceptible individuals of a partition
+     * 
+     * @param individuals          Individuals of the partition
+     * @param time                 Current time in days
+     * @param baseTransmissibility Transmission rate multiplied by the time step
+     * @param kernel               Kernel to evaluate transmission with
+     * @return Number of contacts evaluated
+     */
+    public int transmit(List<Individual> individuals, float time, float baseTransmissibility,
+            ITransmissionKernel kernel) {
+        // Gather susceptible individuals with infectious contacts into columns
+        size = 0;
+        int contacts = 0;
+        for (Individual individual : individuals) {
+            Health health = individual.getHealth();
+            if (health.getState() != HealthState.SUSCEPTIBLE) {
+                continue;
+            }
+            contacts += individual.getContacts().size();
+            float contactInfectivity = health.getContactInfectivity(time);
+            if (contactInfectivity == 0) {
+                continue;
+            }
+            if (size == susceptibles.length) {
+                grow();
+            }
+            susceptibles[size] = health;
+            infectivity[size] = contactInfectivity;
+            susceptibility[size] = health.getSusceptibility();
+            draws[size] = health.nextRandom();
+            size++;
+        }
+
+        // Evaluate transmission for the whole block, then expose individuals
+        kernel.evaluate(baseTransmissibility, infectivity, susceptibility, draws, exposed, size);
+        for (int i = 0; i < size; i++) {
+            if (exposed[i]) {
+                susceptibles[i].expose(time);
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * Double the capacity of the block's columns
+     */
+    private void grow() {
+        int capacity = susceptibles.length * 2;
+        susceptibles = Arrays.copyOf(susceptibles, capacity);
+        infectivity = Arrays.copyOf(infectivity, capacity);
+        susceptibility = Arrays.copyOf(susceptibility, capacity);
+        draws = Arrays.copyOf(draws, capacity);
+        exposed = Arrays.copyOf(exposed, capacity);
+    }
+}
@@ -0,0 +1,212 @@
+package simulation.disease;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import simulation.interventions.Vaccine;
+import simulation.params.DiseaseParams;
+import simulation.population.AgeGroup;
+import simulation.population.Individual;
+
+/**
+ * Class to represent the order in which individuals are offered vaccines, as a prioritised queue of
+ * population indices for each vaccine being rolled out, with a cursor for each dose of its schedule.
+ * The population itself is never reordered, and individuals are only visited as a cursor reaches them.
+ */
+public class VaccinationQueue {
+
+    // Individuals of the population, in their fixed order
+    private final List<Individual> individuals;
+
+    // Risk of each individual relative to the highest risk, given by their age group's severe symptomatic probability
+    private final float[] risks;
+
+    // Shuffled population indices, and sort keys packing each one's priority above its shuffled position
+    private final int[] shuffled;
+    private final long[] keys;
+
+    // Rollouts of the vaccines started in the current run, indexed by vaccine ID number, with their queues kept
+    // between runs to be reordered
+    private final List<Rollout> rollouts = new ArrayList<>();
+    private int rolloutNum;
+
+    // Random stream for the order of the current run's queues
+    private SplittableRandom random;
+
+    /**
+     * Class to represent the rollout of a single vaccine, with a cursor and doses not yet given for each dose
+     * of its schedule
+     */
+    private static class Rollout {
+
+        // Population indices in order of vaccination
+        private final int[] order;
+
+        // Position of each dose's cursor in the queue, and each dose's share of doses not yet given
+        private int[] cursors;
+        private float[] doses;
+
+        /**
+         * Construct a rollout over a population
+         *
+         * @param size Population size
+         */
+        Rollout(int size) {
+            order = new int[size];
+        }
+
+        /**
+         * Reset the rollout for a vaccine's dose schedule
+         *
+         * @param doseNum Number of doses in the schedule
+         */
+        void reset(int doseNum) {
+            if (cursors == null || cursors.length != doseNum) {
+                cursors = new int[doseNum];
+                doses = new float[doseNum];
+            } else {
+                Arrays.fill(cursors, 0);
+                Arrays.fill(doses, 0);
+            }
+        }
+    }
+
+    /**
+     * Construct a vaccination queue over the population
+     *
+     * @param individuals Individuals of the population
+     * @param params      Disease parameters, giving each age group's risk
+     */
+    public VaccinationQueue(List<Individual> individuals, DiseaseParams params) {
+        this.individuals = individuals;
+        this.shuffled = new int[individuals.size()];
+        this.keys = new long[individuals.size()];
+
+        // Find each individual's risk relative to the highest risk age group
+        float maxRisk = 0;
+        for (AgeGroup ageGroup : AgeGroup.values()) {
+            maxRisk = Math.max(maxRisk, params.getSevereSymptomaticProbability().getValue(ageGroup).getValue());
+        }
+        risks = new float[individuals.size()];
+        for (int i = 0; i < risks.length; i++) {
+            AgeGroup ageGroup = AgeGroup.getAgeGroup(individuals.get(i).getAge());
+            float risk = params.getSevereSymptomaticProbability().getValue(ageGroup).getValue();
+            risks[i] = maxRisk > 0 ? risk / maxRisk : 0;
+        }
+    }
+
+    /**
+     * Reset the queue for a new run, with each vaccine's queue to be ordered once it is started
+     *
+     * @param random Random stream for the order of the run's queues
+     */
+    public void reset(SplittableRandom random) {
+        this.random = random;
+        rolloutNum = 0;
+    }
+
+    /**
+     * Order a queue for a new vaccine
+     *
+     * @param order    Population indices to fill in order of vaccination
+     * @param priority Strength of prioritising higher risk individuals (0 = random order, 1 = highest risk first)
+     */
+    private void order(int[] order, float priority) {
+        // Shuffle the population indices, so that individuals with equal priority are in random order
+        for (int i = 0; i < shuffled.length; i++) {
+            shuffled[i] = i;
+        }
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+
+        // Weight each individual's risk against a random draw, and sort by descending priority,
+        // keeping the shuffled order between equal priorities
+        for (int i = 0; i < keys.length; i++) {
+            float score = priority * risks[shuffled[i]] + (1 - priority) * random.nextFloat();
+            keys[i] = ((long) Float.floatToIntBits(1 - score) << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = shuffled[(int) keys[i]];
+        }
+    }
+
+    /**
+     * Get the rollout of a vaccine, ordering its queue when the vaccine is first seen.
+     * Vaccines are started in order of their ID numbers, so each new vaccine is the next rollout.
+     *
+     * @param vaccine Vaccine
+     * @return Rollout of the vaccine
+     */
+    private Rollout getRollout(Vaccine vaccine) {
+        while (rolloutNum < vaccine.getNumber()) {
+            if (rolloutNum == rollouts.size()) {
+                rollouts.add(new Rollout(individuals.size()));
+            }
+            Rollout rollout = rollouts.get(rolloutNum);
+            order(rollout.order, vaccine.getPriority());
+            rollout.reset(vaccine.getDoses());
+            rolloutNum++;
+        }
+        return rollouts.get(vaccine.getNumber() - 1);
+    }
+
+    /**
+     * Give a step's doses of a vaccine to the next individuals in its queue, starting new courses
+     * once every due follow-up dose has been given.
+     * Each follow-up dose has its own cursor, which trails the previous dose's cursor and waits at the first
+     * individual whose dose interval has not yet passed, as individuals further along received the previous
+     * dose no earlier.
+     *
+     * @param vaccine  Vaccine
+     * @param newDoses Number of doses available in the step
+     * @param time     Current time in days
+     */
+    public void vaccinate(Vaccine vaccine, float newDoses, float time) {
+        Rollout rollout = getRollout(vaccine);
+        int[] order = rollout.order;
+        int[] cursors = rollout.cursors;
+        float[] doses = rollout.doses;
+
+        // Give follow-up doses first, from the last dose of the schedule back, passing on unused doses
+        float available = newDoses;
+        for (int dose = cursors.length - 1; dose >= 1; dose--) {
+            doses[dose] += available;
+            int cursor = cursors[dose];
+            while (doses[dose] >= 1 && cursor < cursors[dose - 1]) {
+                Health health = individuals.get(order[cursor]).getHealth();
+                if (health.hasDose(vaccine, dose)) {
+                    if (!health.isDoseDue(vaccine, time)) {
+                        break;
+                    }
+                    if (health.vaccinate(vaccine, time)) {
+                        doses[dose]--;
+                    }
+                }
+                // Individuals who refused, died or moved onto another vaccine are skipped
+                cursor++;
+            }
+            cursors[dose] = cursor;
+            available = doses[dose] >= 1 ? (float) Math.floor(doses[dose]) : 0;
+            doses[dose] -= available;
+        }
+
+        // Start new courses with the remaining doses, advancing the cursor past individuals who refuse,
+        // only using doses on those who accept
+        doses[0] += available;
+        int cursor = cursors[0];
+        while (doses[0] >= 1 && cursor < order.length) {
+            if (individuals.get(order[cursor]).getHealth().vaccinate(vaccine, time)) {
+                doses[0]--;
+            }
+            cursor++;
+        }
+        cursors[0] = cursor;
+    }
+}
@@ -1,15 +1,14 @@
 package simulation.environment;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.SplittableRandom;
 
+import org.locationtech.jts.algorithm.locate.SimplePointInAreaLocator;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Location;
 import org.locationtech.jts.geom.Point;
 
-import simulation.population.Individual;
-
 /**
  * Class to represent building nodes in the environment's graph
  */
@@ -21,7 +20,7 @@ public class Building extends Node {
     private boolean closed;
 
     // The occupants of the building, partitioned into 'rooms'
-    private List<HashSet<Individual>> rooms;
+    private Room[] rooms;
 
     /**
      * Construct a building node
@@ -34,8 +33,7 @@ public class Building extends Node {
         this.type = type;
 
         // Create one room by default
-        rooms = new ArrayList<>();
-        rooms.add(new HashSet<>());
+        rooms = new Room[] { new Room() };
     }
 
     /**
@@ -71,49 +69,30 @@ public class Building extends Node {
      * @param roomNum Number of rooms
      */
     public void setRooms(int roomNum) {
-        rooms.clear();
+        rooms = new Room[roomNum];
         for (int i = 0; i < roomNum; i++) {
-            rooms.add(new HashSet<>());
+            rooms[i] = new Room();
         }
     }
 
     /**
      * Get the index of a random room in the building
      * 
+     * @param random Random stream to draw from
      * @return Index of a random room
      */
-    public int getRandomRoom() {
-        return (int) (Math.random() * rooms.size());
+    public int getRandomRoom(SplittableRandom random) {
+        return random.nextInt(rooms.length);
     }
 
     /**
      * Get the occupants of a given room in the building
      * 
      * @param room Index of the room
-     * @return Set of occupants in the room
-     */
-    public HashSet<Individual> getOccupants(int room) {
-        return rooms.get(room);
-    }
-
-    /**
-     * Add an occupant to a given room in the building
-     * 
-     * @param individual Individual to add
-     * @param room       Index of the room
+     * @return Occupants of the room
      */
-    public synchronized void addOccupant(Individual individual, int room) {
-        rooms.get(room).add(individual);
-    }
-
-    /**
-     * Remove an occupant from a given room in the building
-     * 
-     * @param individual Individual to remove
-     * @param room       Index of the room
-     */
-    public synchronized void removeOccupant(Individual individual, int room) {
-        rooms.get(room).remove(individual);
+    public Room getOccupants(int room) {
+        return rooms[room];
     }
 
     /**
@@ -130,31 +109,32 @@ public class Building extends Node {
      */
     public void reset() {
         closed = false;
-        for (HashSet<Individual> room : rooms) {
+        for (Room room : rooms) {
             room.clear();
         }
     }
 
     /**
      * Get a random point within the building for an individual to be positioned at
+     * 
+     * @param random Random stream of the individual
      */
     @Override
-    public Point getPoint() {
-        Geometry envelope = geometry.getEnvelope();
-        double minX = envelope.getCoordinates()[0].x;
-        double maxX = envelope.getCoordinates()[2].x;
-        double minY = envelope.getCoordinates()[0].y;
-        double maxY = envelope.getCoordinates()[2].y;
-
-        // Generate random coordinates until a point is found within the building
-        double randomX, randomY;
-        Point randomPoint;
+    public Point getPoint(SplittableRandom random) {
+        Envelope envelope = geometry.getEnvelopeInternal();
+        double minX = envelope.getMinX();
+        double maxX = envelope.getMaxX();
+        double minY = envelope.getMinY();
+        double maxY = envelope.getMaxY();
+
+        // Generate random coordinates until one is found within the interior of the building,
+        // only creating a point for the accepted coordinate
+        Coordinate randomCoordinate = new Coordinate();
         do {
-            randomX = minX + Math.random() * (maxX - minX);
-            randomY = minY + Math.random() * (maxY - minY);
-            randomPoint = geometry.getFactory().createPoint(new Coordinate(randomX, randomY));
-        } while (!geometry.contains(randomPoint));
+            randomCoordinate.x = minX + random.nextDouble() * (maxX - minX);
+            randomCoordinate.y = minY + random.nextDouble() * (maxY - minY);
+        } while (SimplePointInAreaLocator.locate(randomCoordinate, geometry) != Location.INTERIOR);
 
-        return randomPoint;
+        return geometry.getFactory().createPoint(randomCoordinate);
     }
 }
@@ -1,15 +1,20 @@
 package simulation.environment;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.geotools.api.feature.simple.SimpleFeature;
 import org.geotools.feature.FeatureIterator;
@@ -23,6 +28,10 @@ import org.locationtech.jts.index.quadtree.Quadtree;
 
 import javafx.util.Pair;
 import simulation.core.InitialisationException;
+import simulation.core.InitialisationStageEvent;
+import simulation.core.RandomStreams;
+import simulation.core.RouteCacheMissEvent;
+import simulation.core.SimulationMetrics;
 import simulation.params.EnvironmentParams;
 
 /**
@@ -36,6 +45,9 @@ public class Environment {
     // Distance threshold for connecting buildings to the road network
     private static final double BUILDING_CONNECT_DISTANCE = 0.001;
 
+    // Number of nearest hospitals considered for admission from each location
+    public static final int NEAREST_HOSPITAL_NUM = 3;
+
     private EnvironmentParams parameters;
     private GISLoader gisLoader;
 
@@ -48,8 +60,29 @@ public class Environment {
     private HashMap<Integer, List<Building>> amenityMap;
     private HashMap<Integer, List<Building>> nonEssentialMap;
 
-    // Thread-safe cache for routes between pairs of buildings
-    private ConcurrentHashMap<Pair<Building, Building>, List<Node>> routeCache;
+    // All nodes of the graph, indexed by their identifier, and a compact copy for route searches
+    private List<Node> nodes;
+    private RouteGraph routeGraph;
+
+    // All hospitals, and the nearest hospitals to each node by network distance, where entry
+    // [id * NEAREST_HOSPITAL_NUM + i] is the index of the node's i-th nearest hospital, or -1
+    private List<Hospital> hospitals;
+    private int[] nearestHospitals;
+
+    // Thread-safe cache for routes between pairs of buildings, each computed at most once
+    private ConcurrentHashMap<Pair<Building, Building>, FutureTask<List<Node>>> routeCache;
+
+    // Performance metrics, counting route computations and cache hits
+    private SimulationMetrics metrics;
+
+    /**
+     * Construct the environment
+     * 
+     * @param metrics Performance metrics
+     */
+    public Environment(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     /**
      * Get the environment parameters
@@ -70,66 +103,70 @@ public class Environment {
     }
 
     /**
-     * Compile a list of all residential buildings in the environment
+     * Compile a list of all residential buildings in the environment, in random order
      * 
+     * @param random Random stream to shuffle with
      * @return List of residential buildings
      */
-    public List<Building> getHomes() {
+    public List<Building> getHomes(SplittableRandom random) {
         List<Building> homes = new ArrayList<Building>();
         for (List<Building> homeList : homeMap.values()) {
             for (Building home : homeList) {
                 homes.add(home);
             }
         }
-        Collections.shuffle(homes);
+        RandomStreams.shuffle(homes, random);
         return homes;
     }
 
     /**
-     * Compile a list of all schools in the environment
+     * Compile a list of all schools in the environment, in random order
      * 
+     * @param random Random stream to shuffle with
      * @return List of schools
      */
-    public List<Building> getSchools() {
+    public List<Building> getSchools(SplittableRandom random) {
         List<Building> schools = new ArrayList<Building>();
         for (List<Building> schoolList : schoolMap.values()) {
             for (Building school : schoolList) {
                 schools.add(school);
             }
         }
-        Collections.shuffle(schools);
+        RandomStreams.shuffle(schools, random);
         return schools;
     }
 
     /**
-     * Compile a list of all universities in the environment
+     * Compile a list of all universities in the environment, in random order
      * 
+     * @param random Random stream to shuffle with
      * @return List of universities
      */
-    public List<Building> getUniversities() {
+    public List<Building> getUniversities(SplittableRandom random) {
         List<Building> universities = new ArrayList<Building>();
         for (List<Building> universityList : universityMap.values()) {
             for (Building university : universityList) {
                 universities.add(university);
             }
         }
-        Collections.shuffle(universities);
+        RandomStreams.shuffle(universities, random);
         return universities;
     }
 
     /**
-     * Compile a list of all non-essential workplaces in the environment
+     * Compile a list of all non-essential workplaces in the environment, in random order
      * 
+     * @param random Random stream to shuffle with
      * @return List of non-essential workplaces
      */
-    public List<Building> getNonEssentialWorkplaces() {
+    public List<Building> getNonEssentialWorkplaces(SplittableRandom random) {
         List<Building> nonEssentialWorkplaces = new ArrayList<Building>();
         for (List<Building> nonEssentialList : nonEssentialMap.values()) {
             for (Building nonEssential : nonEssentialList) {
                 nonEssentialWorkplaces.add(nonEssential);
             }
         }
-        Collections.shuffle(nonEssentialWorkplaces);
+        RandomStreams.shuffle(nonEssentialWorkplaces, random);
         return nonEssentialWorkplaces;
     }
 
@@ -137,70 +174,94 @@ public class Environment {
      * Get a random school in a given component
      * 
      * @param componentID Component's ID
+     * @param random      Random stream to draw from
      * @return Random school in the component
      */
-    public Building getRandomSchool(int componentID) {
+    public Building getRandomSchool(int componentID, SplittableRandom random) {
         List<Building> schools = schoolMap.get(componentID);
         if (schools == null) {
             return null;
         }
-        return schools.get((int) (Math.random() * schools.size()));
+        return schools.get(random.nextInt(schools.size()));
     }
 
     /**
      * Get a random university in a given component
      * 
      * @param componentID Component's ID
+     * @param random      Random stream to draw from
      * @return Random university in the component
      */
-    public Building getRandomUniversity(int componentID) {
+    public Building getRandomUniversity(int componentID, SplittableRandom random) {
         List<Building> universities = universityMap.get(componentID);
         if (universities == null) {
             return null;
         }
-        return universities.get((int) (Math.random() * universities.size()));
+        return universities.get(random.nextInt(universities.size()));
     }
 
     /**
-     * Get a random hospital in a given component
+     * Get one of the nearest hospitals to a node by network distance
      * 
-     * @param componentID Component's ID
-     * @return Random hospital in the component
+     * @param node Node to find hospitals near
+     * @param rank Rank of the hospital by distance, from 0 to NEAREST_HOSPITAL_NUM - 1
+     * @return Hospital, or null if fewer hospitals are reachable
      */
-    public Hospital getRandomHospital(int componentID) {
-        List<Hospital> hospitals = hospitalMap.get(componentID);
-        if (hospitals == null) {
-            return null;
+    public Hospital getNearestHospital(Node node, int rank) {
+        int hospital = nearestHospitals[node.getID() * NEAREST_HOSPITAL_NUM + rank];
+        return hospital == -1 ? null : hospitals.get(hospital);
+    }
+
+    /**
+     * Get the total number of patients waiting for a hospital bed
+     * 
+     * @return Number of waiting patients
+     */
+    public int getHospitalWaitingNum() {
+        int waitingNum = 0;
+        for (Hospital hospital : hospitals) {
+            waitingNum += hospital.getWaitingNum();
+        }
+        return waitingNum;
+    }
+
+    /**
+     * Reset the environment's hospitals for a new run
+     */
+    public void reset() {
+        for (Hospital hospital : hospitals) {
+            hospital.reset();
         }
-        return hospitals.get((int) (Math.random() * hospitals.size()));
     }
 
     /**
      * Get a random workplace in a given component
      * 
      * @param componentID Component's ID
+     * @param random      Random stream to draw from
      * @return Random workplace in the component
      */
-    public Building getRandomWorkplace(int componentID) {
+    public Building getRandomWorkplace(int componentID, SplittableRandom random) {
         List<Building> workplaces = workplaceMap.get(componentID);
         if (workplaces == null) {
             return null;
         }
-        return workplaces.get((int) (Math.random() * workplaces.size()));
+        return workplaces.get(random.nextInt(workplaces.size()));
     }
 
     /**
      * Get a random amenity in a given component
      * 
      * @param componentID Component's ID
+     * @param random      Random stream to draw from
      * @return Random amenity in the component
      */
-    public Building getRandomAmenity(int componentID) {
+    public Building getRandomAmenity(int componentID, SplittableRandom random) {
         List<Building> amenities = amenityMap.get(componentID);
         if (amenities == null) {
             return null;
         }
-        return amenities.get((int) (Math.random() * amenities.size()));
+        return amenities.get(random.nextInt(amenities.size()));
     }
 
     /**
@@ -214,6 +275,7 @@ public class Environment {
 
         if (parameters.getBuildingsFile().isDirty() || parameters.getRoadsFile().isDirty()) {
             // Load GIS data
+            InitialisationStageEvent loadEvent = new InitialisationStageEvent("Environment", "Load GIS data");
             gisLoader = new GISLoader();
             if (!gisLoader.loadBuildings(parameters.getBuildingsFile().getFile())) {
                 throw new InitialisationException("Buildings shapefile could not be loaded");
@@ -221,12 +283,17 @@ public class Environment {
             if (!gisLoader.loadRoads(parameters.getRoadsFile().getFile())) {
                 throw new InitialisationException("Roads shapefile could not be loaded");
             }
+            loadEvent.commit();
 
             // Create graph of buildings connected by the road network
+            InitialisationStageEvent graphEvent = new InitialisationStageEvent("Environment", "Build graph");
             buildGraph();
+            graphEvent.commit();
         }
 
         // Assign hospital capacities, weighted by their area
+        InitialisationStageEvent hospitalEvent = new InitialisationStageEvent("Environment",
+                "Assign hospital capacities");
         double totalArea = 0;
         for (List<Hospital> hospitals : hospitalMap.values()) {
             for (Hospital hospital : hospitals) {
@@ -239,6 +306,7 @@ public class Environment {
                 hospital.setCapacity(capacity);
             }
         }
+        hospitalEvent.commit();
 
         // Initialise the route cache
         routeCache = new ConcurrentHashMap<>();
@@ -255,26 +323,111 @@ public class Environment {
         if (start instanceof Building && end instanceof Building) {
             // Check if the route is cached, and return it if so
             Pair<Building, Building> key = new Pair<Building, Building>((Building) start, (Building) end);
-            if (routeCache.containsKey(key)) {
-                return routeCache.get(key);
+            FutureTask<List<Node>> cached = routeCache.get(key);
+            if (cached != null) {
+                metrics.countRouteCacheHit();
+                return awaitRoute(cached);
             }
 
-            // Check if the reverse route is cached, and return the reverse if so
+            // Check if the reverse route is cached, and cache its reverse once if so,
+            // so that later trips in this direction share the reversed route
             Pair<Building, Building> reverseKey = new Pair<Building, Building>((Building) end, (Building) start);
-            if (routeCache.containsKey(reverseKey)) {
-                List<Node> route = new ArrayList<>(routeCache.get(reverseKey));
-                Collections.reverse(route);
-                return route;
+            FutureTask<List<Node>> reverse = routeCache.get(reverseKey);
+            if (reverse != null) {
+                metrics.countRouteCacheHit();
+                List<Node> reverseRoute = awaitRoute(reverse);
+                List<Node> route = null;
+                if (reverseRoute != null) {
+                    route = new ArrayList<>(reverseRoute);
+                    Collections.reverse(route);
+                }
+                List<Node> reversed = route;
+                FutureTask<List<Node>> task = new FutureTask<>(() -> reversed);
+                task.run();
+                cached = routeCache.putIfAbsent(key, task);
+                return cached != null ? awaitRoute(cached) : route;
             }
 
-            // Otherwise, compute the route and add it to the cache
-            List<Node> route = findRoute(start, end);
-            routeCache.put(key, route);
+            // Otherwise, add the route to the cache and compute it, so that concurrent
+            // requests for the same route wait for it rather than computing it again
+            FutureTask<List<Node>> task = new FutureTask<>(() -> findRoute(start, end));
+            cached = routeCache.putIfAbsent(key, task);
+            if (cached != null) {
+                metrics.countRouteCacheHit();
+                return awaitRoute(cached);
+            }
+            RouteCacheMissEvent event = new RouteCacheMissEvent();
+            event.begin();
+            task.run();
+            List<Node> route = awaitRoute(task);
+            if (event.shouldCommit()) {
+                event.componentID = start.getComponentID();
+                event.routeLength = route == null ? 0 : route.size();
+                event.commit();
+            }
             return route;
         }
         return findRoute(start, end);
     }
 
+    /**
+     * Pre-compute and cache the routes from a source building to each of a set of destinations
+     * 
+     * @param source       Source building
+     * @param destinations Destination buildings
+     */
+    public void precomputeRoutes(Building source, Collection<Building> destinations) {
+        // Find the destinations which are not yet cached in either direction
+        List<Building> uncached = new ArrayList<>();
+        for (Building destination : destinations) {
+            if (!routeCache.containsKey(new Pair<Building, Building>(source, destination))
+                    && !routeCache.containsKey(new Pair<Building, Building>(destination, source))) {
+                uncached.add(destination);
+            }
+        }
+
+        // Compute all uncached routes with a single search, and add them to the cache
+        if (uncached.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Node, List<Node>> entry : findRoutes(source, uncached).entrySet()) {
+            List<Node> route = entry.getValue();
+            FutureTask<List<Node>> task = new FutureTask<>(() -> route);
+            task.run();
+            routeCache.putIfAbsent(new Pair<Building, Building>(source, (Building) entry.getKey()), task);
+        }
+    }
+
+    /**
+     * Compute the routes from a source node to each of a set of target nodes,
+     * using a single search rather than one search per target
+     * 
+     * @param source  Source node
+     * @param targets Target nodes
+     * @return Map from each target to its route, or to null if it is unreachable
+     */
+    public Map<Node, List<Node>> findRoutes(Node source, Collection<? extends Node> targets) {
+        metrics.countRouteComputed();
+        return routeGraph.findRoutes(source, targets);
+    }
+
+    /**
+     * Wait for a cached route to be computed
+     * 
+     * @param task Route computation
+     * @return Route, or null if there is no route
+     */
+    private List<Node> awaitRoute(FutureTask<List<Node>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     /**
      * Compute the route between two nodes using the A* search algorithm
      * 
@@ -283,6 +436,8 @@ public class Environment {
      * @return
      */
     public List<Node> findRoute(Node start, Node end) {
+        metrics.countRouteComputed();
+
         // Initialise data structures
         Set<Node> visited = new HashSet<>();
         HashMap<Node, Node> cameFrom = new HashMap<>();
@@ -424,6 +579,13 @@ public class Environment {
         }
         iterator.close();
 
+        // Assign identifiers to the road nodes
+        nodes = new ArrayList<>();
+        for (Node node : pointNodeMap.values()) {
+            node.setID(nodes.size());
+            nodes.add(node);
+        }
+
         // Compute the connected components of the graph
         int components = 0;
         for (Node node : pointNodeMap.values()) {
@@ -499,6 +661,8 @@ public class Environment {
                 }
                 building.addNeighbour(roadNode);
                 roadNode.addNeighbour(building);
+                building.setID(nodes.size());
+                nodes.add(building);
                 int componentID = roadNode.getComponentID();
                 building.setComponentID(componentID);
 
@@ -539,5 +703,15 @@ public class Environment {
             }
             iterator.close();
         }
+
+        // Build the compact graph for route searches
+        routeGraph = new RouteGraph(nodes);
+
+        // Find the nearest hospitals to each node
+        hospitals = new ArrayList<>();
+        for (List<Hospital> componentHospitals : hospitalMap.values()) {
+            hospitals.addAll(componentHospitals);
+        }
+        nearestHospitals = routeGraph.findNearestSources(hospitals, NEAREST_HOSPITAL_NUM);
     }
 }
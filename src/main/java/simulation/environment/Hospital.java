@@ -1,19 +1,30 @@
 package simulation.environment;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.locationtech.jts.geom.Geometry;
 
 import simulation.core.SimulationOutput;
+import simulation.population.Individual;
 
 /**
- * Class to represent hospital nodes, a special subtype of the Building class
+ * Class to represent hospital nodes, a special subtype of the Building class.
+ * Patients who cannot be admitted join a first-come first-served waiting list, and are offered
+ * beds as they are freed, rather than retrying admission each step.
  */
 public class Hospital extends Building {
 
     // Maximum number of patients the hospital can accommodate simultaneously
     private int capacity;
 
-    // Number of patients currently in the hospital
-    private volatile int occupancy;
+    // Number of beds currently taken, including beds offered to waiting patients
+    private final AtomicInteger occupancy = new AtomicInteger();
+
+    // Patients waiting for a bed, in order of arrival, and their number
+    private final Queue<Individual> waitingList = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingNum = new AtomicInteger();
 
     /**
      * Constructs a hospital node
@@ -22,7 +33,6 @@ public class Hospital extends Building {
     public Hospital(Geometry geometry) {
         super(geometry, BuildingType.HOSPITAL);
         this.capacity = 0;
-        this.occupancy = 0;
     }
 
     /**
@@ -34,13 +44,28 @@ public class Hospital extends Building {
     }
 
     /**
-     * Add a patient to the hospital
+     * Get the number of beds currently taken
+     * @return Occupancy of the hospital
+     */
+    public int getOccupancy() {
+        return occupancy.get();
+    }
+
+    /**
+     * Get the number of patients waiting for a bed
+     * @return Length of the waiting list
+     */
+    public int getWaitingNum() {
+        return waitingNum.get();
+    }
+
+    /**
+     * Add a patient to the hospital, unless it is full or other patients are already waiting
      * @param output Simulation output
-     * @return True if the patient was admitted, false if the hospital was full
+     * @return True if the patient was admitted, false otherwise
      */
-    public synchronized boolean admitPatient(SimulationOutput output) {
-        if (occupancy < capacity) {
-            occupancy++;
+    public boolean admitPatient(SimulationOutput output) {
+        if (waitingNum.get() == 0 && reserveBed()) {
             output.countHospitalAdmission();
             return true;
         }
@@ -48,19 +73,98 @@ public class Hospital extends Building {
     }
 
     /**
-     * Discharge a patient from the hospital
+     * Discharge a patient from the hospital, offering their bed to the next waiting patient
      * @param output Simulation output
      * @return True if the patient was discharged, false if the hospital was empty
      */
-    public synchronized boolean dischargePatient(SimulationOutput output) {
-        if (occupancy > 0) {
-            occupancy--;
+    public boolean dischargePatient(SimulationOutput output) {
+        if (releaseBed()) {
             output.countHospitalDischarge();
             return true;
         }
         return false;
     }
 
+    /**
+     * Add a patient to the back of the waiting list.
+     * The patient must be waiting for admission, and is offered a bed once one is free.
+     * @param individual Waiting patient
+     */
+    public void joinWaitingList(Individual individual) {
+        waitingList.add(individual);
+        waitingNum.incrementAndGet();
+        // A bed may have been freed before the patient joined
+        offerBeds();
+    }
+
+    /**
+     * Remove a patient from the waiting list, once they no longer need a bed.
+     * If a bed has already been offered to the patient, it is offered to the next waiting patient.
+     * @param individual Waiting patient
+     */
+    public void leaveWaitingList(Individual individual) {
+        if (individual.withdrawAdmission()) {
+            if (waitingList.remove(individual)) {
+                waitingNum.decrementAndGet();
+            }
+        } else {
+            releaseBed();
+        }
+    }
+
+    /**
+     * Offer free beds to patients at the front of the waiting list
+     */
+    private void offerBeds() {
+        while (waitingNum.get() > 0 && reserveBed()) {
+            Individual individual = waitingList.poll();
+            if (individual == null) {
+                // Another thread took the last waiting patient
+                occupancy.decrementAndGet();
+                if (waitingNum.get() > 0) {
+                    continue;
+                }
+                return;
+            }
+            waitingNum.decrementAndGet();
+            if (!individual.offerAdmission()) {
+                // The patient withdrew after being taken from the list
+                occupancy.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Take a bed if one is free
+     * @return True if a bed was taken
+     */
+    private boolean reserveBed() {
+        int taken;
+        do {
+            taken = occupancy.get();
+            if (taken >= capacity) {
+                return false;
+            }
+        } while (!occupancy.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    /**
+     * Free a bed, offering it to the next waiting patient
+     * @return True if a bed was freed, false if the hospital was empty
+     */
+    private boolean releaseBed() {
+        int taken;
+        do {
+            taken = occupancy.get();
+            if (taken == 0) {
+                return false;
+            }
+        } while (!occupancy.compareAndSet(taken, taken - 1));
+        offerBeds();
+        return true;
+    }
+
     /**
      * Get the area of the hospital (for estimating capacity)
      * @return Area of the hospital
@@ -75,7 +179,9 @@ public class Hospital extends Building {
     @Override
     public void reset() {
         super.reset();
-        occupancy = 0;
+        occupancy.set(0);
+        waitingList.clear();
+        waitingNum.set(0);
     }
 
 }
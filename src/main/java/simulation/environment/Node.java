@@ -2,6 +2,7 @@ package simulation.environment;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
@@ -13,18 +14,25 @@ public class Node {
 
     protected Geometry geometry;
 
+    // Centre point of the node's geometry, found once when the geometry is set
+    private Point centre;
+
     // The node's neighbouring set in the graph
     private Set<Node> neighbours;
 
     // Identifier for the node's connected component
     private int componentID;
 
+    // Identifier for the node, unique within the environment's graph
+    private int id;
+
     /**
      * Construct a new node
      */
     public Node() {
         this.neighbours = new HashSet<>();
         this.componentID = -1;
+        this.id = -1;
     }
 
     /**
@@ -34,7 +42,7 @@ public class Node {
      */
     public Node(Geometry geometry) {
         this();
-        this.geometry = geometry;
+        setGeometry(geometry);
     }
 
     /**
@@ -44,6 +52,7 @@ public class Node {
      */
     public void setGeometry(Geometry geometry) {
         this.geometry = geometry;
+        this.centre = geometry.getCentroid();
     }
 
     /**
@@ -52,7 +61,7 @@ public class Node {
      * @return Central point of the node
      */
     public Point getCentre() {
-        return geometry.getCentroid();
+        return centre;
     }
 
     /**
@@ -64,6 +73,16 @@ public class Node {
         return getCentre();
     }
 
+    /**
+     * Get a point inside the node's geometry for an individual to be positioned at
+     * 
+     * @param random Random stream of the individual
+     * @return Point inside the node
+     */
+    public Point getPoint(SplittableRandom random) {
+        return getPoint();
+    }
+
     /**
      * Get the neighbours of the node
      * 
@@ -99,4 +118,22 @@ public class Node {
     public int getComponentID() {
         return componentID;
     }
+
+    /**
+     * Set the node's identifier
+     * 
+     * @param id Index of the node in the environment's graph
+     */
+    public void setID(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Get the node's identifier
+     * 
+     * @return Index of the node in the environment's graph
+     */
+    public int getID() {
+        return id;
+    }
 }
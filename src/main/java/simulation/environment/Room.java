@@ -0,0 +1,148 @@
+package simulation.environment;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import simulation.population.Individual;
+
+/**
+ * Class to represent a 'room' of a building, holding its occupants in a compact array in population order.
+ * Occupancy is updated between the movement and disease phases of each step, only rebuilding rooms whose
+ * occupants changed, and is read-only while the disease phase runs.
+ */
+public class Room {
+
+    // Initial number of occupant slots allocated for a room
+    private static final int INITIAL_CAPACITY = 8;
+
+    // Order of occupants in the room
+    private static final Comparator<Individual> POPULATION_ORDER = Comparator.comparingInt(Individual::getIndex);
+
+    // Occupants of the room, densely packed in the first 'size' slots
+    private Individual[] occupants;
+    private int size;
+
+    // Spare array which the next occupants are merged into before being swapped with the occupants
+    private Individual[] spare;
+
+    // Individuals arriving in the room since it was last rebuilt, in any order
+    private Individual[] arrivals;
+    private int arrivalNum;
+
+    // Whether the room's occupants have changed since it was last rebuilt
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    /**
+     * Construct an empty room
+     */
+    public Room() {
+        occupants = new Individual[INITIAL_CAPACITY];
+        spare = new Individual[INITIAL_CAPACITY];
+        arrivals = new Individual[INITIAL_CAPACITY];
+        size = 0;
+        arrivalNum = 0;
+    }
+
+    /**
+     * Get the number of occupants in the room
+     *
+     * @return Number of occupants
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the occupant in a given slot of the room
+     *
+     * @param index Slot index, between 0 and the number of occupants
+     * @return Occupant in the slot
+     */
+    public Individual get(int index) {
+        return occupants[index];
+    }
+
+    /**
+     * Add an occupant to the room, growing the room if it is full
+     *
+     * @param individual Individual to add
+     */
+    public void add(Individual individual) {
+        if (size == occupants.length) {
+            occupants = Arrays.copyOf(occupants, size * 2);
+        }
+        occupants[size++] = individual;
+    }
+
+    /**
+     * Remove all occupants and pending arrivals from the room
+     */
+    public void clear() {
+        Arrays.fill(occupants, 0, size, null);
+        Arrays.fill(arrivals, 0, arrivalNum, null);
+        size = 0;
+        arrivalNum = 0;
+        changed.set(false);
+    }
+
+    /**
+     * Mark the room's occupants as changed, so that it is rebuilt by the current occupancy update
+     *
+     * @return True if the room was not already marked, so the caller is responsible for rebuilding it
+     */
+    public boolean markChanged() {
+        return changed.compareAndSet(false, true);
+    }
+
+    /**
+     * Record an individual arriving in the room, to be added when it is rebuilt.
+     * May be called by many threads during an occupancy update.
+     *
+     * @param individual Arriving individual
+     */
+    public synchronized void arrive(Individual individual) {
+        if (arrivalNum == arrivals.length) {
+            arrivals = Arrays.copyOf(arrivals, arrivalNum * 2);
+        }
+        arrivals[arrivalNum++] = individual;
+    }
+
+    /**
+     * Rebuild the room once every individual has updated their occupancy, keeping the occupants who
+     * are still in the room and merging in the arrivals, so that the occupants stay in population order
+     */
+    public void rebuild() {
+        Arrays.sort(arrivals, 0, arrivalNum, POPULATION_ORDER);
+        if (spare.length < size + arrivalNum) {
+            spare = new Individual[Math.max(spare.length * 2, size + arrivalNum)];
+        }
+
+        // Merge the remaining occupants and the arrivals, which are both in population order
+        int newSize = 0;
+        int a = 0;
+        for (int i = 0; i < size; i++) {
+            Individual occupant = occupants[i];
+            if (!occupant.isOccupying(this)) {
+                continue;
+            }
+            while (a < arrivalNum && arrivals[a].getIndex() < occupant.getIndex()) {
+                spare[newSize++] = arrivals[a++];
+            }
+            spare[newSize++] = occupant;
+        }
+        while (a < arrivalNum) {
+            spare[newSize++] = arrivals[a++];
+        }
+
+        // Swap in the new occupants, clearing references to departed individuals
+        Arrays.fill(occupants, 0, size, null);
+        Individual[] swap = occupants;
+        occupants = spare;
+        spare = swap;
+        size = newSize;
+        Arrays.fill(arrivals, 0, arrivalNum, null);
+        arrivalNum = 0;
+        changed.set(false);
+    }
+}
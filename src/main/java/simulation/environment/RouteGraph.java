@@ -0,0 +1,349 @@
+package simulation.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Point;
+
+/**
+ * Class to represent a compact, immutable copy of the environment's graph for route searches,
+ * with adjacency stored in flat arrays indexed by node identifier
+ */
+public class RouteGraph {
+
+    // Nodes of the graph, indexed by identifier
+    private final Node[] nodes;
+
+    // Adjacency of each node, as the range [edgeStart[i], edgeStart[i + 1]) of the edge arrays
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final double[] edgeLength;
+
+    // Reusable search state for each thread
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * Class to hold the state of a search, reused across searches by the same thread.
+     * Entries are only valid if stamped with the current search's epoch, so they never need clearing.
+     */
+    private static class Search {
+        int epoch;
+        int[] reached;
+        int[] settled;
+        int[] targeted;
+        double[] distance;
+        int[] previous;
+
+        // Binary heap of nodes keyed by tentative distance, allowing stale entries
+        int[] heapNodes = new int[64];
+        double[] heapKeys = new double[64];
+        int heapSize;
+
+        Search(int nodeNum) {
+            reached = new int[nodeNum];
+            settled = new int[nodeNum];
+            targeted = new int[nodeNum];
+            distance = new double[nodeNum];
+            previous = new int[nodeNum];
+        }
+
+        /**
+         * Begin a new search, invalidating all entries of the previous search
+         */
+        void begin() {
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                Arrays.fill(settled, 0);
+                Arrays.fill(targeted, 0);
+                epoch = 1;
+            }
+            heapSize = 0;
+        }
+
+        /**
+         * Add a node to the heap
+         */
+        void push(int node, double key) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapKeys[i] = heapKeys[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+        }
+
+        /**
+         * Remove the node with the smallest key from the heap
+         */
+        int pop() {
+            int top = heapNodes[0];
+            int node = heapNodes[--heapSize];
+            double key = heapKeys[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (key <= heapKeys[child]) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapKeys[i] = heapKeys[child];
+                i = child;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+            return top;
+        }
+    }
+
+    /**
+     * Construct a route graph from the environment's nodes
+     * 
+     * @param nodeList Nodes of the graph, where each node's identifier is its index
+     */
+    public RouteGraph(List<Node> nodeList) {
+        int nodeNum = nodeList.size();
+        nodes = nodeList.toArray(new Node[0]);
+
+        // Compute the centre of each node once
+        double[] x = new double[nodeNum];
+        double[] y = new double[nodeNum];
+        for (int i = 0; i < nodeNum; i++) {
+            Point centre = nodes[i].getCentre();
+            x[i] = centre.getX();
+            y[i] = centre.getY();
+        }
+
+        // Flatten the adjacency of each node
+        edgeStart = new int[nodeNum + 1];
+        for (int i = 0; i < nodeNum; i++) {
+            edgeStart[i + 1] = edgeStart[i] + nodes[i].getNeighbours().size();
+        }
+        edgeTarget = new int[edgeStart[nodeNum]];
+        edgeLength = new double[edgeStart[nodeNum]];
+        for (int i = 0; i < nodeNum; i++) {
+            int edge = edgeStart[i];
+            for (Node neighbour : nodes[i].getNeighbours()) {
+                int j = neighbour.getID();
+                edgeTarget[edge] = j;
+                edgeLength[edge] = Math.hypot(x[j] - x[i], y[j] - y[i]);
+                edge++;
+            }
+        }
+
+        searches = ThreadLocal.withInitial(() -> new Search(nodeNum));
+    }
+
+    /**
+     * Find the shortest routes from a source node to each of a set of targets, using a single
+     * Dijkstra search which stops once every reachable target has been reached
+     * 
+     * @param source  Source node
+     * @param targets Target nodes
+     * @return Map from each target to its route, or to null if it is unreachable
+     */
+    public Map<Node, List<Node>> findRoutes(Node source, Collection<? extends Node> targets) {
+        Map<Node, List<Node>> routes = new HashMap<>();
+        Search search = searches.get();
+        search.begin();
+        int epoch = search.epoch;
+
+        // Mark targets in the source's connected component, which are the only reachable ones
+        int remaining = 0;
+        for (Node target : targets) {
+            if (target.getComponentID() != source.getComponentID()) {
+                routes.put(target, null);
+            } else if (search.targeted[target.getID()] != epoch) {
+                search.targeted[target.getID()] = epoch;
+                remaining++;
+            }
+        }
+
+        // Search outwards from the source until all reachable targets are settled
+        int start = source.getID();
+        search.reached[start] = epoch;
+        search.distance[start] = 0;
+        search.previous[start] = -1;
+        search.push(start, 0);
+        while (search.heapSize > 0 && remaining > 0) {
+            int node = search.pop();
+            if (search.settled[node] == epoch) {
+                continue;
+            }
+            search.settled[node] = epoch;
+            if (search.targeted[node] == epoch) {
+                remaining--;
+            }
+            double distance = search.distance[node];
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int neighbour = edgeTarget[edge];
+                double newDistance = distance + edgeLength[edge];
+                if (search.reached[neighbour] != epoch || newDistance < search.distance[neighbour]) {
+                    search.reached[neighbour] = epoch;
+                    search.distance[neighbour] = newDistance;
+                    search.previous[neighbour] = node;
+                    search.push(neighbour, newDistance);
+                }
+            }
+        }
+
+        // Retrace the route to each target
+        for (Node target : targets) {
+            if (routes.containsKey(target)) {
+                continue;
+            }
+            int node = target.getID();
+            if (search.settled[node] != epoch) {
+                routes.put(target, null);
+                continue;
+            }
+            ArrayList<Node> route = new ArrayList<>();
+            while (node != -1) {
+                route.add(nodes[node]);
+                node = search.previous[node];
+            }
+            Collections.reverse(route);
+            routes.put(target, route);
+        }
+        return routes;
+    }
+
+    /**
+     * Find the k nearest sources to every node by network distance, using a single multi-source
+     * Dijkstra search in which each node is settled at most once for each of its k nearest sources
+     * 
+     * @param sources Source nodes
+     * @param k       Number of nearest sources to find for each node
+     * @return Table where entry [node * k + i] is the index in the sources of the node's i-th nearest
+     *         source, or -1 if fewer than i + 1 sources are reachable
+     */
+    public int[] findNearestSources(List<? extends Node> sources, int k) {
+        int[] nearest = new int[nodes.length * k];
+        Arrays.fill(nearest, -1);
+        int[] labelNum = new int[nodes.length];
+
+        // Binary heap of (node, source) labels keyed by distance
+        int[] heapNodes = new int[64];
+        int[] heapSources = new int[64];
+        double[] heapKeys = new double[64];
+        int heapSize = 0;
+
+        for (int s = 0; s < sources.size(); s++) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapSources = Arrays.copyOf(heapSources, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            }
+            heapNodes[heapSize] = sources.get(s).getID();
+            heapSources[heapSize] = s;
+            heapKeys[heapSize] = 0;
+            heapSize++;
+        }
+        // All initial keys are equal, so the initial array is already a valid heap
+
+        while (heapSize > 0) {
+            // Pop the label with the smallest distance
+            int node = heapNodes[0];
+            int source = heapSources[0];
+            double distance = heapKeys[0];
+            heapSize--;
+            siftDown(heapNodes, heapSources, heapKeys, heapSize, heapNodes[heapSize], heapSources[heapSize],
+                    heapKeys[heapSize]);
+
+            // Settle the label, unless the node already has k sources or this source
+            if (labelNum[node] == k || hasLabel(nearest, node, k, labelNum[node], source)) {
+                continue;
+            }
+            nearest[node * k + labelNum[node]++] = source;
+
+            // Extend the label to neighbours which may still accept it
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int neighbour = edgeTarget[edge];
+                if (labelNum[neighbour] == k || hasLabel(nearest, neighbour, k, labelNum[neighbour], source)) {
+                    continue;
+                }
+                if (heapSize == heapNodes.length) {
+                    heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                    heapSources = Arrays.copyOf(heapSources, heapSize * 2);
+                    heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                }
+                double key = distance + edgeLength[edge];
+                int i = heapSize++;
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (heapKeys[parent] <= key) {
+                        break;
+                    }
+                    heapNodes[i] = heapNodes[parent];
+                    heapSources[i] = heapSources[parent];
+                    heapKeys[i] = heapKeys[parent];
+                    i = parent;
+                }
+                heapNodes[i] = neighbour;
+                heapSources[i] = source;
+                heapKeys[i] = key;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Check if a node has already been settled with a given source
+     */
+    private static boolean hasLabel(int[] nearest, int node, int k, int labelNum, int source) {
+        for (int i = 0; i < labelNum; i++) {
+            if (nearest[node * k + i] == source) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Place a label at the root of a heap of the given size and sift it down into position
+     */
+    private static void siftDown(int[] heapNodes, int[] heapSources, double[] heapKeys, int heapSize, int node,
+            int source, double key) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapNodes[i] = heapNodes[child];
+            heapSources[i] = heapSources[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapSources[i] = source;
+        heapKeys[i] = key;
+    }
+}
@@ -0,0 +1,303 @@
+package simulation.interventions;
+
+import java.util.List;
+import java.util.Map;
+
+import simulation.params.InterventionParam;
+
+/**
+ * Class to represent an immutable snapshot of the active intervention policy, published once per day.
+ * Compliance thresholds of inactive interventions are zero, so that no individual complies with them,
+ * and protection factors are precomputed as multipliers.
+ */
+public final class InterventionPolicy {
+
+    // Flags of an individual's compliance bitmask, one for each intervention with a compliance threshold
+    public static final int MASKS = 1;
+    public static final int SOCIAL_DISTANCING = 1 << 1;
+    public static final int ISOLATION = 1 << 2;
+    public static final int TESTING = 1 << 3;
+    public static final int QUARANTINE = 1 << 4;
+    public static final int LOCKDOWN = 1 << 5;
+
+    // Policy with no active interventions
+    public static final InterventionPolicy NONE = new InterventionPolicy(Map.of(), List.of());
+
+    // Mask parameters
+    private final float maskCompliance;
+    private final float maskInhalationMultiplier;
+    private final float maskExhalationMultiplier;
+
+    // Social distancing parameters
+    private final float socialDistancingCompliance;
+    private final float socialDistancingEffectiveness;
+
+    // Isolation parameters
+    private final float isolationCompliance;
+
+    // Testing parameters
+    private final float testCompliance;
+    private final float testFrequency;
+    private final float testWaitTime;
+    private final float testFalsePositiveRate;
+    private final float testFalseNegativeRate;
+
+    // Tracing and quarantine parameters
+    private final float quarantineCompliance;
+    private final float tracingEffectiveness;
+    private final float tracingWaitTime;
+    private final float minQuarantineTime;
+
+    // Lockdown parameters
+    private final float lockdownCompliance;
+
+    // Active vaccines, in the order they were started
+    private final Vaccine[] vaccines;
+
+    /**
+     * Construct a policy snapshot from the active interventions
+     *
+     * @param active   Most recently started active intervention of each type
+     * @param vaccines Every active vaccine, in the order they were started
+     */
+    InterventionPolicy(Map<InterventionType, InterventionParam> active, List<Vaccine> vaccines) {
+        InterventionParam masks = active.get(InterventionType.MASKS);
+        maskCompliance = getValue(masks, "compliance", 0);
+        maskInhalationMultiplier = 1 - getValue(masks, "inhalationProtection", 0);
+        maskExhalationMultiplier = 1 - getValue(masks, "exhalationProtection", 0);
+
+        InterventionParam socialDistancing = active.get(InterventionType.SOCIAL_DISTANCING);
+        socialDistancingCompliance = getValue(socialDistancing, "compliance", 0);
+        socialDistancingEffectiveness = getValue(socialDistancing, "effectiveness", 0);
+
+        isolationCompliance = getValue(active.get(InterventionType.ISOLATION), "compliance", 0);
+
+        InterventionParam testing = active.get(InterventionType.TESTING);
+        testCompliance = getValue(testing, "compliance", 0);
+        testFrequency = getValue(testing, "frequency", 0);
+        testWaitTime = getValue(testing, "wait", 0);
+        testFalsePositiveRate = getValue(testing, "falsePositive", 0);
+        testFalseNegativeRate = getValue(testing, "falseNegative", 0);
+
+        InterventionParam tracing = active.get(InterventionType.TRACING_AND_QUARANTINE);
+        quarantineCompliance = getValue(tracing, "compliance", 0);
+        tracingEffectiveness = getValue(tracing, "effectiveness", 0);
+        tracingWaitTime = getValue(tracing, "wait", 0);
+        minQuarantineTime = getValue(tracing, "time", 0);
+
+        lockdownCompliance = getValue(active.get(InterventionType.LOCKDOWN), "compliance", 0);
+
+        this.vaccines = vaccines.toArray(new Vaccine[0]);
+    }
+
+    /**
+     * Get a parameter value of an intervention, or a default if the intervention is inactive
+     */
+    private static float getValue(InterventionParam intervention, String name, float defaultValue) {
+        if (intervention == null) {
+            return defaultValue;
+        }
+        return intervention.getParams().getValue(name).getValue();
+    }
+
+    /**
+     * Get the interventions an individual complies with under the policy
+     *
+     * @param resistance Individual's resistance to interventions
+     * @return Bitmask of compliance flags
+     */
+    public int getCompliance(float resistance) {
+        int compliance = 0;
+        if (resistance < maskCompliance) {
+            compliance |= MASKS;
+        }
+        if (resistance < socialDistancingCompliance) {
+            compliance |= SOCIAL_DISTANCING;
+        }
+        if (resistance < isolationCompliance) {
+            compliance |= ISOLATION;
+        }
+        if (resistance < testCompliance) {
+            compliance |= TESTING;
+        }
+        if (resistance < quarantineCompliance) {
+            compliance |= QUARANTINE;
+        }
+        if (resistance < lockdownCompliance) {
+            compliance |= LOCKDOWN;
+        }
+        return compliance;
+    }
+
+    /**
+     * Get the mask wearing compliance, or zero if mask wearing is inactive
+     *
+     * @return Mask wearing compliance
+     */
+    public float getMaskCompliance() {
+        return maskCompliance;
+    }
+
+    /**
+     * Get the multiplier applied to the susceptibility of mask wearers
+     *
+     * @return Mask inhalation multiplier
+     */
+    public float getMaskInhalationMultiplier() {
+        return maskInhalationMultiplier;
+    }
+
+    /**
+     * Get the multiplier applied to the infectiousness of mask wearers
+     *
+     * @return Mask exhalation multiplier
+     */
+    public float getMaskExhalationMultiplier() {
+        return maskExhalationMultiplier;
+    }
+
+    /**
+     * Get social distancing compliance, or zero if social distancing is inactive
+     *
+     * @return Social distancing compliance
+     */
+    public float getSocialDistancingCompliance() {
+        return socialDistancingCompliance;
+    }
+
+    /**
+     * Get social distancing effectiveness
+     *
+     * @return Social distancing effectiveness
+     */
+    public float getSocialDistancingEffectiveness() {
+        return socialDistancingEffectiveness;
+    }
+
+    /**
+     * Get isolation compliance, or zero if isolation is inactive
+     *
+     * @return Isolation compliance
+     */
+    public float getIsolationCompliance() {
+        return isolationCompliance;
+    }
+
+    /**
+     * Get testing compliance, or zero if testing is inactive
+     *
+     * @return Testing compliance
+     */
+    public float getTestCompliance() {
+        return testCompliance;
+    }
+
+    /**
+     * Get testing frequency
+     *
+     * @return Testing frequency
+     */
+    public float getTestFrequency() {
+        return testFrequency;
+    }
+
+    /**
+     * Get testing wait time
+     *
+     * @return Testing wait time
+     */
+    public float getTestWaitTime() {
+        return testWaitTime;
+    }
+
+    /**
+     * Get testing false positive rate
+     *
+     * @return Testing false positive rate
+     */
+    public float getTestFalsePositiveRate() {
+        return testFalsePositiveRate;
+    }
+
+    /**
+     * Get testing false negative rate
+     *
+     * @return Testing false negative rate
+     */
+    public float getTestFalseNegativeRate() {
+        return testFalseNegativeRate;
+    }
+
+    /**
+     * Get quarantine compliance, or zero if contact tracing & quarantine is inactive
+     *
+     * @return Quarantine compliance
+     */
+    public float getQuarantineCompliance() {
+        return quarantineCompliance;
+    }
+
+    /**
+     * Get tracing effectiveness
+     *
+     * @return Tracing effectiveness
+     */
+    public float getTracingEffectiveness() {
+        return tracingEffectiveness;
+    }
+
+    /**
+     * Get tracing wait time
+     *
+     * @return Tracing wait time
+     */
+    public float getTracingWaitTime() {
+        return tracingWaitTime;
+    }
+
+    /**
+     * Get minimum quarantine time
+     *
+     * @return Minimum quarantine time
+     */
+    public float getMinQuarantineTime() {
+        return minQuarantineTime;
+    }
+
+    /**
+     * Get lockdown compliance, or zero if lockdown is inactive
+     *
+     * @return Lockdown compliance
+     */
+    public float getLockdownCompliance() {
+        return lockdownCompliance;
+    }
+
+    /**
+     * Get whether any vaccination is active
+     *
+     * @return True if vaccination is active
+     */
+    public boolean isVaccinationActive() {
+        return vaccines.length > 0;
+    }
+
+    /**
+     * Get the number of active vaccines
+     *
+     * @return Number of active vaccines
+     */
+    public int getVaccineCount() {
+        return vaccines.length;
+    }
+
+    /**
+     * Get an active vaccine, with vaccines indexed in the order they were started
+     *
+     * @param index Index of the vaccine among the active vaccines
+     * @return Active vaccine
+     */
+    public Vaccine getVaccine(int index) {
+        return vaccines[index];
+    }
+}
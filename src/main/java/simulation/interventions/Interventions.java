@@ -1,11 +1,16 @@
 package simulation.interventions;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.SplittableRandom;
 
 import simulation.params.InterventionParam;
 import simulation.params.InterventionParams;
 import simulation.core.InitialisationException;
+import simulation.core.InitialisationStageEvent;
+import simulation.core.RandomStreams;
 import simulation.environment.Building;
 import simulation.environment.Environment;
 
@@ -30,47 +35,15 @@ public class Interventions {
     private int universityClosures;
     private int nonEssentialWorkplaceClosures;
 
-    // Mask parameters
-    private boolean masks;
-    private float maskInhalationProtection;
-    private float maskExhalationProtection;
-    private float maskCompliance;
+    // Most recently started active intervention of each type
+    private EnumMap<InterventionType, InterventionParam> enabledInterventions;
 
-    // Social distancing parameters
-    private boolean socialDistancing;
-    private float socialDistancingEffectiveness;
-    private float socialDistancingCompliance;
-
-    // Isolation parameters
-    private boolean isolation;
-    private float isolationCompliance;
-
-    // Testing parameters
-    private boolean testing;
-    private float testFrequency;
-    private float testWaitTime;
-    private float testFalsePositiveRate;
-    private float testFalseNegativeRate;
-    private float testCompliance;
-
-    // Tracing and quarantine parameters
-    private boolean tracingAndQuarantine;
-    private float tracingEffectiveness;
-    private float tracingWaitTime;
-    private float minQuarantineTime;
-    private float quarantineCompliance;
-
-    // Lockdown parameters
-    private boolean lockdown;
-    private float lockdownCompliance;
-
-    // Vaccination parameters
-    private boolean vaccination;
+    // Number of vaccines started so far, and the active vaccines in the order they were started
     private int vaccineNumber;
-    private float vaccinationSusceptibilityReduction;
-    private float vaccinationSeverityReduction;
-    private float vaccinationRate;
-    private float vaccinationCompliance;
+    private List<Vaccine> vaccines;
+
+    // Snapshot of the active intervention policy, read by individuals
+    private volatile InterventionPolicy policy = InterventionPolicy.NONE;
 
     /**
      * Get the parameters for the interventions
@@ -82,255 +55,29 @@ public class Interventions {
     }
 
     /**
-     * Get whether mask wearing is active
-     * 
-     * @return True if mask wearing is active
-     */
-    public boolean isMaskWearingActive() {
-        return masks;
-    }
-
-    /**
-     * Get mask inhalation protection
-     * 
-     * @return Mask inhalation protection
-     */
-    public float getMaskInhalationProtection() {
-        return maskInhalationProtection;
-    }
-
-    /**
-     * Get mask exhalation protection
-     * 
-     * @return Mask exhalation protection
-     */
-    public float getMaskExhalationProtection() {
-        return maskExhalationProtection;
-    }
-
-    /**
-     * Get the mask wearing compliance
-     * 
-     * @return Mask wearing compliance
-     */
-    public float getMaskCompliance() {
-        return maskCompliance;
-    }
-
-    /**
-     * Get whether social distancing is active
-     * 
-     * @return True if social distancing is active
-     */
-    public boolean isSocialDistancingActive() {
-        return socialDistancing;
-    }
-
-    /**
-     * Get social distancing effectiveness
-     * 
-     * @return Social distancing effectiveness
-     */
-    public float getSocialDistancingEffectiveness() {
-        return socialDistancingEffectiveness;
-    }
-
-    /**
-     * Get social distancing compliance
-     * 
-     * @return Social distancing compliance
-     */
-    public float getSocialDistancingCompliance() {
-        return socialDistancingCompliance;
-    }
-
-    /**
-     * Get whether isolation is active
-     * 
-     * @return True if isolation is active
-     */
-    public boolean isIsolationActive() {
-        return isolation;
-    }
-
-    /**
-     * Get isolation compliance
-     * 
-     * @return Isolation compliance
-     */
-    public float getIsolationCompliance() {
-        return isolationCompliance;
-    }
-
-    /**
-     * Get whether testing is active
-     * 
-     * @return True if testing is active
-     */
-    public boolean isTestingActive() {
-        return testing;
-    }
-
-    /**
-     * Get testing frequency
-     * 
-     * @return Testing frequency
-     */
-    public float getTestFrequency() {
-        return testFrequency;
-    }
-
-    /**
-     * Get testing wait time
-     * 
-     * @return Testing wait time
-     */
-    public float getTestWaitTime() {
-        return testWaitTime;
-    }
-
-    /**
-     * Get testing false positive rate
-     * 
-     * @return Testing false positive rate
-     */
-    public float getTestFalsePositiveRate() {
-        return testFalsePositiveRate;
-    }
-
-    /**
-     * Get testing false negative rate
-     * 
-     * @return Testing false negative rate
-     */
-    public float getTestFalseNegativeRate() {
-        return testFalseNegativeRate;
-    }
-
-    /**
-     * Get testing compliance
-     * 
-     * @return Testing compliance
-     */
-    public float getTestCompliance() {
-        return testCompliance;
-    }
-
-    /**
-     * Get whether contact tracing & quarantine is active
+     * Get the snapshot of the active intervention policy, published after each day's changes
      * 
-     * @return True if contact tracing & quarantine is active
+     * @return Intervention policy
      */
-    public boolean isTracingAndQuarantineActive() {
-        return tracingAndQuarantine;
+    public InterventionPolicy getPolicy() {
+        return policy;
     }
 
     /**
-     * Get tracing effectiveness
+     * Check whether vaccination is active or yet to start in the current run
      * 
-     * @return Tracing effectiveness
+     * @return True if a vaccination intervention is active or yet to start
      */
-    public float getTracingEffectiveness() {
-        return tracingEffectiveness;
-    }
-
-    /**
-     * Get tracing wait time
-     * 
-     * @return Tracing wait time
-     */
-    public float getTracingWaitTime() {
-        return tracingWaitTime;
-    }
-
-    /**
-     * Get minimum quarantine time
-     * 
-     * @return Minimum quarantine time
-     */
-    public float getMinQuarantineTime() {
-        return minQuarantineTime;
-    }
-
-    /**
-     * Get quarantine compliance
-     * 
-     * @return Quarantine compliance
-     */
-    public float getQuarantineCompliance() {
-        return quarantineCompliance;
-    }
-
-    /**
-     * Get whether lockdown is active
-     * 
-     * @return True if lockdown is active
-     */
-    public boolean isLockdownActive() {
-        return lockdown;
-    }
-
-    /**
-     * Get lockdown compliance
-     * 
-     * @return Lockdown compliance
-     */
-    public float getLockdownCompliance() {
-        return lockdownCompliance;
-    }
-
-    /**
-     * Get whether vaccination is active
-     * 
-     * @return True if vaccination is active
-     */
-    public boolean isVaccinationActive() {
-        return vaccination;
-    }
-
-    /**
-     * Get the current vaccine ID number
-     * 
-     * @return Vaccine ID number
-     */
-    public int getVaccineNumber() {
-        return vaccineNumber;
-    }
-
-    /**
-     * Get the vaccination susceptibility reduction
-     * 
-     * @return Vaccination susceptibility reduction
-     */
-    public float getVaccinationSusceptibilityReduction() {
-        return vaccinationSusceptibilityReduction;
-    }
-
-    /**
-     * Get the vaccination symptom severity reduction
-     * 
-     * @return Vaccination symptom severity reduction
-     */
-    public float getVaccinationSeverityReduction() {
-        return vaccinationSeverityReduction;
-    }
-
-    /**
-     * Get the vaccination rate
-     * 
-     * @return Vaccination rate
-     */
-    public float getVaccinationRate() {
-        return vaccinationRate;
-    }
-
-    /**
-     * Get the vaccination compliance
-     * 
-     * @return Vaccination compliance
-     */
-    public float getVaccinationCompliance() {
-        return vaccinationCompliance;
+    public boolean isVaccinationPending() {
+        if (policy.isVaccinationActive()) {
+            return true;
+        }
+        for (InterventionParam intervention : inactiveInterventions) {
+            if (intervention.getType() == InterventionType.VACCINATION) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -338,10 +85,14 @@ public class Interventions {
      * 
      * @param params      Intervention parameters
      * @param environment Environment
+     * @param seed        Seed for the choice of buildings to close
      * @throws InitialisationException If invalid intervention parameters are
      *                                 provided
      */
-    public void initialise(InterventionParams params, Environment environment) throws InitialisationException {
+    public void initialise(InterventionParams params, Environment environment, long seed)
+            throws InitialisationException {
+        InitialisationStageEvent event = new InitialisationStageEvent("Interventions", "Initialise interventions");
+
         // Validate intervention parameters
         for (InterventionParam intervention : params.getInterventions()) {
             if (intervention.getStart().getValue() > intervention.getEnd().getValue()) {
@@ -351,23 +102,30 @@ public class Interventions {
 
         parameters = params;
 
-        // Retrieve building references for closure interventions
-        schools = environment.getSchools();
-        universities = environment.getUniversities();
-        nonEssentialWorkplaces = environment.getNonEssentialWorkplaces();
+        // Retrieve building references for closure interventions, in an order which is the same for
+        // every scenario with the same seed
+        SplittableRandom random = RandomStreams.create(seed, RandomStreams.INTERVENTIONS);
+        schools = environment.getSchools(random);
+        universities = environment.getUniversities(random);
+        nonEssentialWorkplaces = environment.getNonEssentialWorkplaces(random);
 
         reset();
+        event.commit();
     }
 
     /**
-     * Enable/disable interventions for the next given day
+     * Enable/disable interventions for the next given day,
+     * publishing a new policy if any intervention started or ended
      * 
      * @param day Day of the simulation
      */
     public void step(int day) {
+        boolean changed = false;
+
         // End old interventions
         InterventionParam nextToEnd = activeInterventions.peek();
         while (nextToEnd != null && nextToEnd.getEnd().getValue() <= day) {
+            changed = true;
             endIntervention(nextToEnd);
             activeInterventions.poll();
             nextToEnd = activeInterventions.peek();
@@ -376,10 +134,16 @@ public class Interventions {
         // Start new interventions
         InterventionParam nextToStart = inactiveInterventions.peek();
         while (nextToStart != null && nextToStart.getStart().getValue() - 1 <= day) {
+            changed = true;
             startIntervention(nextToStart);
             activeInterventions.add(inactiveInterventions.poll());
             nextToStart = inactiveInterventions.peek();
         }
+
+        // Publish the policy for the day
+        if (changed) {
+            publishPolicy();
+        }
     }
 
     /**
@@ -397,17 +161,20 @@ public class Interventions {
         schoolClosures = 0;
         universityClosures = 0;
         nonEssentialWorkplaceClosures = 0;
-        masks = false;
-        socialDistancing = false;
-        isolation = false;
-        testing = false;
-        tracingAndQuarantine = false;
-        lockdown = false;
-        vaccination = false;
+        enabledInterventions = new EnumMap<>(InterventionType.class);
         vaccineNumber = 0;
+        vaccines = new ArrayList<>();
 
-        // Enable day 0 interventions (if any)
+        // Enable day 0 interventions (if any), always publishing a new policy for the run
         step(0);
+        publishPolicy();
+    }
+
+    /**
+     * Publish a snapshot of the active interventions
+     */
+    private void publishPolicy() {
+        policy = new InterventionPolicy(enabledInterventions, vaccines);
     }
 
     /**
@@ -416,37 +183,8 @@ public class Interventions {
      * @param intervention Intervention to enable
      */
     private void startIntervention(InterventionParam intervention) {
+        enabledInterventions.put(intervention.getType(), intervention);
         switch (intervention.getType()) {
-            case MASKS:
-                masks = true;
-                maskInhalationProtection = intervention.getParams().getValue("inhalationProtection").getValue();
-                maskExhalationProtection = intervention.getParams().getValue("exhalationProtection").getValue();
-                maskCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
-            case SOCIAL_DISTANCING:
-                socialDistancing = true;
-                socialDistancingEffectiveness = intervention.getParams().getValue("effectiveness").getValue();
-                socialDistancingCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
-            case ISOLATION:
-                isolation = true;
-                isolationCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
-            case TESTING:
-                testing = true;
-                testFrequency = intervention.getParams().getValue("frequency").getValue();
-                testWaitTime = intervention.getParams().getValue("wait").getValue();
-                testFalsePositiveRate = intervention.getParams().getValue("falsePositive").getValue();
-                testFalseNegativeRate = intervention.getParams().getValue("falseNegative").getValue();
-                testCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
-            case TRACING_AND_QUARANTINE:
-                tracingAndQuarantine = true;
-                tracingEffectiveness = intervention.getParams().getValue("effectiveness").getValue();
-                tracingWaitTime = intervention.getParams().getValue("wait").getValue();
-                minQuarantineTime = intervention.getParams().getValue("time").getValue();
-                quarantineCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
             case SCHOOL_CLOSURE:
                 // Close a proportion of school buildings
                 schoolClosures = (int) (schools.size() * intervention.getParams().getValue("closures").getValue());
@@ -470,19 +208,12 @@ public class Interventions {
                     nonEssentialWorkplaces.get(i).setClosed(true);
                 }
                 break;
-            case LOCKDOWN:
-                lockdown = true;
-                lockdownCompliance = intervention.getParams().getValue("compliance").getValue();
-                break;
             case VACCINATION:
-                vaccination = true;
+                // Roll out the vaccine alongside any others already active
                 vaccineNumber++;
-                vaccinationSusceptibilityReduction = intervention.getParams().getValue("susceptibilityReduction")
-                        .getValue();
-                vaccinationSeverityReduction = intervention.getParams().getValue("severityReduction").getValue();
-                vaccinationRate = intervention.getParams().getValue("rate").getValue();
-                vaccinationCompliance = intervention.getParams().getValue("compliance").getValue();
+                vaccines.add(new Vaccine(vaccineNumber, intervention));
                 break;
+            default:
         }
     }
 
@@ -492,22 +223,9 @@ public class Interventions {
      * @param intervention Intervention to disable
      */
     private void endIntervention(InterventionParam intervention) {
+        enabledInterventions.remove(intervention.getType());
+        vaccines.removeIf(vaccine -> vaccine.getIntervention() == intervention);
         switch (intervention.getType()) {
-            case MASKS:
-                masks = false;
-                break;
-            case SOCIAL_DISTANCING:
-                socialDistancing = false;
-                break;
-            case ISOLATION:
-                isolation = false;
-                break;
-            case TESTING:
-                testing = false;
-                break;
-            case TRACING_AND_QUARANTINE:
-                tracingAndQuarantine = false;
-                break;
             case SCHOOL_CLOSURE:
                 // Re-open a proportion of school buildings
                 for (int i = 0; i < schoolClosures; i++) {
@@ -526,12 +244,7 @@ public class Interventions {
                     nonEssentialWorkplaces.get(i).setClosed(false);
                 }
                 break;
-            case LOCKDOWN:
-                lockdown = false;
-                break;
-            case VACCINATION:
-                vaccination = false;
-                break;
+            default:
         }
     }
 }
@@ -0,0 +1,139 @@
+package simulation.interventions;
+
+import simulation.params.InterventionParam;
+
+/**
+ * Class to represent an immutable snapshot of an active vaccination intervention and its dose schedule.
+ * Several vaccines may be rolled out at once, each identified by the order in which they were started.
+ */
+public final class Vaccine {
+
+    // Vaccine ID number, counting vaccines in the order they were started
+    private final int number;
+
+    // Intervention the vaccine was started from
+    private final InterventionParam intervention;
+
+    // Rollout parameters
+    private final float compliance;
+    private final float rate;
+    private final float priority;
+
+    // Dose schedule, as the number of doses in a full course and the days between consecutive doses
+    private final int doses;
+    private final float doseInterval;
+
+    // Reductions in susceptibility and symptom severity given by a full course
+    private final float susceptibilityReduction;
+    private final float severityReduction;
+
+    /**
+     * Construct a vaccine from a started vaccination intervention
+     *
+     * @param number       Vaccine ID number
+     * @param intervention Vaccination intervention
+     */
+    Vaccine(int number, InterventionParam intervention) {
+        this.number = number;
+        this.intervention = intervention;
+        compliance = getValue(intervention, "compliance");
+        rate = getValue(intervention, "rate");
+        priority = getValue(intervention, "priority");
+        doses = Math.max(1, (int) getValue(intervention, "doses"));
+        doseInterval = getValue(intervention, "doseInterval");
+        susceptibilityReduction = getValue(intervention, "susceptibilityReduction");
+        severityReduction = getValue(intervention, "severityReduction");
+    }
+
+    /**
+     * Get a parameter value of the vaccination intervention
+     */
+    private static float getValue(InterventionParam intervention, String name) {
+        return intervention.getParams().getValue(name).getValue();
+    }
+
+    /**
+     * Get the intervention the vaccine was started from
+     *
+     * @return Vaccination intervention
+     */
+    InterventionParam getIntervention() {
+        return intervention;
+    }
+
+    /**
+     * Get the vaccine ID number
+     *
+     * @return Vaccine ID number
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Get the probability that an individual accepts the vaccine
+     *
+     * @return Vaccination compliance
+     */
+    public float getCompliance() {
+        return compliance;
+    }
+
+    /**
+     * Get the proportion of the population given a dose of the vaccine each day
+     *
+     * @return Vaccination rate
+     */
+    public float getRate() {
+        return rate;
+    }
+
+    /**
+     * Get the vaccination priority given to individuals at higher risk
+     *
+     * @return Vaccination priority
+     */
+    public float getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get the number of doses in a full course of the vaccine
+     *
+     * @return Number of doses
+     */
+    public int getDoses() {
+        return doses;
+    }
+
+    /**
+     * Get the minimum number of days between consecutive doses
+     *
+     * @return Dose interval in days
+     */
+    public float getDoseInterval() {
+        return doseInterval;
+    }
+
+    /**
+     * Get the multiplier applied to the susceptibility of an individual given a number of doses,
+     * with protection building up evenly over the course
+     *
+     * @param dose Number of doses received
+     * @return Vaccine transmissibility multiplier
+     */
+    public float getTransmissibilityMultiplier(int dose) {
+        return 1 - susceptibilityReduction * dose / doses;
+    }
+
+    /**
+     * Get the multiplier applied to the symptom severity of an individual given a number of doses,
+     * with protection building up evenly over the course
+     *
+     * @param dose Number of doses received
+     * @return Vaccine severity multiplier
+     */
+    public float getSeverityMultiplier(int dose) {
+        return 1 - severityReduction * dose / doses;
+    }
+}
@@ -1,6 +1,7 @@
 package simulation.params;
 
 import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * Class to represent a discrete distribution parameter
@@ -45,16 +46,17 @@ public class DiscreteDistributionParam<K> extends MapParam<K, FloatParam> {
 
     /**
      * Randomly sample from the distribution
+     * @param random Random stream to draw from
      * @return Randomly sampled value
      */
-    public K sample() {
-        float random = (float) Math.random() * totalWeight;
+    public K sample(SplittableRandom random) {
+        float weight = random.nextFloat() * totalWeight;
         float sum = 0;
 
-        // Return the first key with cumulative weight greater than 'random'
+        // Return the first key with cumulative weight greater than 'weight'
         for (Map.Entry<K, FloatParam> entry : map.entrySet()) {
             sum += entry.getValue().getValue();
-            if (random < sum) {
+            if (weight < sum) {
                 return entry.getKey();
             }
         }
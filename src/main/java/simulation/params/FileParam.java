@@ -45,6 +45,7 @@ public class FileParam implements IParam {
      */
     public FileParam(FileParam param) {
         this.name = param.name;
+        this.description = param.description;
         this.file = new File(param.file.getAbsolutePath());
         this.dirty = param.dirty;
     }
@@ -65,6 +66,17 @@ public class FileParam implements IParam {
         return file;
     }
 
+    /**
+     * Set file, without a file selection prompt
+     * @param newFile New file
+     */
+    public void setFile(File newFile) {
+        if (!newFile.getAbsoluteFile().equals(file.getAbsoluteFile())) {
+            file = newFile;
+            dirty = true;
+        }
+    }
+
     /**
      * Check if parameter has been modified
      * @return True if parameter has been modified
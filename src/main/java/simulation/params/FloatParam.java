@@ -43,7 +43,10 @@ public class FloatParam implements IParam {
      */
     public FloatParam(FloatParam param) {
         this.name = param.name;
+        this.description = param.description;
         this.value = param.value;
+        this.min = param.min;
+        this.max = param.max;
         this.dirty = param.dirty;
     }
 
@@ -55,6 +58,18 @@ public class FloatParam implements IParam {
         return value;
     }
 
+    /**
+     * Set float value, clamped between the minimum and maximum values
+     * @param newValue New float value
+     */
+    public void setValue(float newValue) {
+        newValue = Math.min(Math.max(newValue, min), max);
+        if (value != newValue) {
+            value = newValue;
+            dirty = true;
+        }
+    }
+
     /**
      * Check if parameter has been modified
      * @return True if parameter has been modified
@@ -1,5 +1,7 @@
 package simulation.params;
 
+import java.util.SplittableRandom;
+
 import org.apache.commons.math3.distribution.GammaDistribution;
 
 import javafx.geometry.Pos;
@@ -55,12 +57,38 @@ public class GammaDistributionParam implements IParam {
     }
 
     /**
-     * Randomly sample from the distribution
+     * Randomly sample from the distribution, using Marsaglia and Tsang's method
      * 
+     * @param random Random stream to draw from
      * @return Randomly sampled value
      */
-    public float sample() {
-        return (float) distribution.sample();
+    public float sample(SplittableRandom random) {
+        double shape = distribution.getShape();
+        double scale = distribution.getScale();
+
+        // Boost shapes below one, as the method requires a shape of at least one
+        double boost = 1;
+        if (shape < 1) {
+            boost = Math.pow(random.nextDouble(), 1 / shape);
+            shape += 1;
+        }
+
+        // Draw until a candidate is accepted
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x;
+            double v;
+            do {
+                x = random.nextGaussian();
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+                return (float) (d * v * scale * boost);
+            }
+        }
     }
 
     /**
@@ -43,7 +43,10 @@ public class IntegerParam implements IParam {
      */
     public IntegerParam(IntegerParam param) {
         this.name = param.name;
+        this.description = param.description;
         this.value = param.value;
+        this.min = param.min;
+        this.max = param.max;
         this.dirty = param.dirty;
     }
 
@@ -55,6 +58,18 @@ public class IntegerParam implements IParam {
         return value;
     }
 
+    /**
+     * Set integer value, clamped between the minimum and maximum values
+     * @param newValue New integer value
+     */
+    public void setValue(int newValue) {
+        newValue = Math.min(Math.max(newValue, min), max);
+        if (value != newValue) {
+            value = newValue;
+            dirty = true;
+        }
+    }
+
     /**
      * Check if parameter has been modified
      * @return True if parameter has been modified
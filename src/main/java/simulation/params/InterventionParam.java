@@ -169,6 +169,20 @@ public class InterventionParam implements IParam {
                                                 new FloatParam("Compliance",
                                                                 "The probability that an individual will accept the vaccine when available",
                                                                 0f, 0f, 1f));
+                                // Vaccination priority
+                                params.setValue("priority",
+                                                new FloatParam("Risk Priority",
+                                                                "The priority given to individuals at higher risk of severe symptoms (0 = random order, 1 = highest risk first)",
+                                                                0f, 0f, 1f));
+                                // Vaccination dose schedule
+                                params.setValue("doses",
+                                                new FloatParam("Doses",
+                                                                "The number of doses in a full course of the vaccine, with protection building up evenly with each dose",
+                                                                1f, 1f, 10f));
+                                params.setValue("doseInterval",
+                                                new FloatParam("Dose Interval",
+                                                                "The minimum number of days between consecutive doses",
+                                                                0f, 0f, Float.MAX_VALUE));
                                 break;
                 }
         }
@@ -91,6 +91,16 @@ public class PopulationParams implements IParam {
                         "The proportion of working age adults (18-65 year olds) who are not employed or studying",
                         0.058f, 0f, 1f);
 
+        // Shift work rate
+        private FloatParam shiftWorkRate = new FloatParam("Shift Work Rate",
+                        "The proportion of employed adults who work night shifts on working days, sleeping during the day",
+                        0f, 0f, 1f);
+
+        // Working days
+        private IntegerParam workingDays = new IntegerParam("Working Days",
+                        "The number of days each week, starting on a Monday, on which workers and students go to work",
+                        7, 1, 7);
+
         /**
          * Construct new population parameters
          */
@@ -109,6 +119,8 @@ public class PopulationParams implements IParam {
                 schoolEntryRate = new FloatParam(params.schoolEntryRate);
                 universityEntryRate = new FloatParam(params.universityEntryRate);
                 unemploymentRate = new FloatParam(params.unemploymentRate);
+                shiftWorkRate = new FloatParam(params.shiftWorkRate);
+                workingDays = new IntegerParam(params.workingDays);
         }
 
         /**
@@ -165,6 +177,24 @@ public class PopulationParams implements IParam {
                 return unemploymentRate;
         }
 
+        /**
+         * Get shift work rate
+         * 
+         * @return Shift work rate
+         */
+        public FloatParam getShiftWorkRate() {
+                return shiftWorkRate;
+        }
+
+        /**
+         * Get number of working days each week
+         * 
+         * @return Working days
+         */
+        public IntegerParam getWorkingDays() {
+                return workingDays;
+        }
+
         /**
          * Check if parameters have been modified
          * 
@@ -173,7 +203,7 @@ public class PopulationParams implements IParam {
         public boolean isDirty() {
                 return populationSize.isDirty() || householdSizeDistribution.isDirty() || ageDistribution.isDirty()
                                 || schoolEntryRate.isDirty() || universityEntryRate.isDirty()
-                                || unemploymentRate.isDirty();
+                                || unemploymentRate.isDirty() || shiftWorkRate.isDirty() || workingDays.isDirty();
         }
 
         /**
@@ -186,6 +216,8 @@ public class PopulationParams implements IParam {
                 schoolEntryRate.clean();
                 universityEntryRate.clean();
                 unemploymentRate.clean();
+                shiftWorkRate.clean();
+                workingDays.clean();
         }
 
         /**
@@ -199,7 +231,9 @@ public class PopulationParams implements IParam {
                                 ageDistribution.getInputUI(),
                                 schoolEntryRate.getInputUI(),
                                 universityEntryRate.getInputUI(),
-                                unemploymentRate.getInputUI());
+                                unemploymentRate.getInputUI(),
+                                shiftWorkRate.getInputUI(),
+                                workingDays.getInputUI());
                 TitledPane titledPane = new TitledPane("Population", inputs);
                 titledPane.getStyleClass().add("big-titled-pane");
                 return titledPane;
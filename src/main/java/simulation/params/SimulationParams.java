@@ -12,14 +12,24 @@ public class SimulationParams implements IParam {
 
     // Number of simulation runs
     private IntegerParam runs = new IntegerParam("Simulation Runs",
-            "The number of repeated simulations to perform",
+            "The number of repeated simulations to perform, or the maximum number if a convergence threshold is set",
             3, 1, Integer.MAX_VALUE);
 
+    // Convergence threshold for stopping runs early
+    private FloatParam convergence = new FloatParam("Convergence Threshold",
+            "Stop once the 95% confidence intervals of peak prevalence, cases and deaths are within this fraction of their means (0 = fixed number of runs)",
+            0, 0, 1);
+
     // Simulation duration
     private IntegerParam duration = new IntegerParam("Simulation Duration",
             "The duration of a simulation run in days",
             20, 1, Integer.MAX_VALUE);
 
+    // Random seed
+    private IntegerParam seed = new IntegerParam("Random Seed",
+            "The seed for random numbers, with which scenarios draw the same random numbers for comparison (0 = unseeded)",
+            0, 0, Integer.MAX_VALUE);
+
     // Parameters for environment, population, disease and intervention components
     private EnvironmentParams environmentParams;
     private PopulationParams populationParams;
@@ -38,6 +48,13 @@ public class SimulationParams implements IParam {
         interventionParams = new InterventionParams();
     };
 
+    /**
+     * Construct new simulation parameters without a stage, for running the simulation headless
+     */
+    public SimulationParams() {
+        this((Stage) null);
+    }
+
     /**
      * Clone simulation parameters
      * 
@@ -45,7 +62,9 @@ public class SimulationParams implements IParam {
      */
     public SimulationParams(SimulationParams params) {
         runs = new IntegerParam(params.runs);
+        convergence = new FloatParam(params.convergence);
         duration = new IntegerParam(params.duration);
+        seed = new IntegerParam(params.seed);
         environmentParams = new EnvironmentParams(params.environmentParams);
         populationParams = new PopulationParams(params.populationParams);
         diseaseParams = new DiseaseParams(params.diseaseParams);
@@ -61,6 +80,15 @@ public class SimulationParams implements IParam {
         return runs;
     }
 
+    /**
+     * Get convergence threshold
+     * 
+     * @return Relative confidence interval half-width at which to stop runs, or 0 to run a fixed number of runs
+     */
+    public FloatParam getConvergence() {
+        return convergence;
+    }
+
     /**
      * Get simulation duration
      * 
@@ -70,6 +98,15 @@ public class SimulationParams implements IParam {
         return duration;
     }
 
+    /**
+     * Get random seed
+     * 
+     * @return Random seed, or 0 if unseeded
+     */
+    public IntegerParam getSeed() {
+        return seed;
+    }
+
     /**
      * Get environment parameters
      * 
@@ -106,13 +143,22 @@ public class SimulationParams implements IParam {
         return interventionParams;
     }
 
+    /**
+     * Set intervention parameters
+     * 
+     * @param interventionParams Intervention parameters
+     */
+    public void setInterventionParams(InterventionParams interventionParams) {
+        this.interventionParams = interventionParams;
+    }
+
     /**
      * Check if parameters have been modified
      * 
      * @return True if parameters have been modified
      */
     public boolean isDirty() {
-        return runs.isDirty() || duration.isDirty() || environmentParams.isDirty()
+        return runs.isDirty() || convergence.isDirty() || duration.isDirty() || seed.isDirty() || environmentParams.isDirty()
                 || populationParams.isDirty() || diseaseParams.isDirty() || interventionParams.isDirty();
     }
 
@@ -121,7 +167,9 @@ public class SimulationParams implements IParam {
      */
     public void clean() {
         runs.clean();
+        convergence.clean();
         duration.clean();
+        seed.clean();
         environmentParams.clean();
         populationParams.clean();
         diseaseParams.clean();
@@ -136,7 +184,9 @@ public class SimulationParams implements IParam {
     public Region getInputUI() {
         VBox container = new VBox(
                 runs.getInputUI(),
+                convergence.getInputUI(),
                 duration.getInputUI(),
+                seed.getInputUI(),
                 environmentParams.getInputUI(),
                 populationParams.getInputUI(),
                 diseaseParams.getInputUI(),
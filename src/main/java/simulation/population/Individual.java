@@ -1,12 +1,15 @@
 package simulation.population;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 
+import simulation.core.RandomStreams;
 import simulation.core.Simulation;
 import simulation.core.SimulationOutput;
 import simulation.disease.Health;
@@ -15,6 +18,7 @@ import simulation.environment.Building;
 import simulation.environment.Environment;
 import simulation.environment.Hospital;
 import simulation.environment.Node;
+import simulation.environment.Room;
 
 /**
  * Class to represent an individual of the population
@@ -30,10 +34,27 @@ public class Individual {
     // Probability of going home when changing location during leisure time
     private static final float LEISURE_GO_HOME_PROB = 0.5f;
 
+    // States of a hospital waiting list admission
+    private static final int NOT_WAITING = 0;
+    private static final int WAITING = 1;
+    private static final int OFFERED = 2;
+
+    // Shared empty room for individuals outside of any building
+    private static final Room NO_CONTACTS = new Room();
+
+    // Factory for the points given out as individuals' positions
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
     // Required simulation components
     private Environment environment;
     private SimulationOutput output;
 
+    // Seed of the individual's random streams for each run
+    private final long seed;
+
+    // Index of the individual in the population
+    private int index;
+
     // Characteristics
     private int age;
     private boolean isEssential;
@@ -47,14 +68,23 @@ public class Individual {
 
     // Current state
     private Activity activity;
-    private Point position;
+    private final Coordinate position = new Coordinate();
     private Node location;
     private int room;
+    private Room occupiedRoom;
     private List<Node> route;
     private int routeIndex;
     private Health health;
     private Hospital hospital;
 
+    // Random stream for the individual's movement in the current run
+    private SplittableRandom random;
+
+    // Hospital whose waiting list the individual is on, if any, and the state of their admission,
+    // which may be offered by other threads as beds are freed
+    private Hospital waitingHospital;
+    private final AtomicInteger admission = new AtomicInteger(NOT_WAITING);
+
     /**
      * Construct an individual
      * 
@@ -64,9 +94,11 @@ public class Individual {
      * @param home        Individual's home building
      * @param workplace   Individual's workplace building
      * @param amenities   Individual's list of amenity buildings
+     * @param schedule    Individual's schedule, which may be shared with other individuals
+     * @param random      Random stream of the individual's household
      */
     public Individual(Environment environment, SimulationOutput output, int age, Building home, Building workplace,
-            List<Building> amenities) {
+            List<Building> amenities, Schedule schedule, SplittableRandom random) {
         this.environment = environment;
         this.output = output;
         this.home = home;
@@ -74,25 +106,72 @@ public class Individual {
         this.workRoom = -1;
         this.amenities = amenities;
 
-        // Compile list of regular buildings (home, workplace and amenities)
+        this.age = age;
+        this.isEssential = workplace != null && workplace.isEssential();
+        this.schedule = schedule;
+        this.seed = random.nextLong();
+
+        reset(0);
+    }
+
+    /**
+     * Get the individual's regular buildings (home, workplace and amenities),
+     * between which routes are pre-computed
+     * 
+     * @return List of regular buildings
+     */
+    public List<Building> getRegularBuildings() {
         ArrayList<Building> regularBuildings = new ArrayList<Building>(amenities);
         regularBuildings.add(home);
         if (workplace != null) {
             regularBuildings.add(workplace);
         }
+        return regularBuildings;
+    }
 
-        // Pre-compute and cache routes between all pairs of regular buildings
-        for (int i = 0; i < regularBuildings.size() - 1; i++) {
-            for (int j = i + 1; j < regularBuildings.size(); j++) {
-                environment.getRoute(regularBuildings.get(i), regularBuildings.get(j));
-            }
-        }
+    /**
+     * Get the individual's home
+     * 
+     * @return Home building
+     */
+    public Building getHome() {
+        return home;
+    }
 
-        this.age = age;
-        this.isEssential = workplace != null && workplace.isEssential();
-        this.schedule = new Schedule(age, workplace != null);
+    /**
+     * Get the individual's workplace, if any
+     * 
+     * @return Workplace building, or null if the individual does not work
+     */
+    public Building getWorkplace() {
+        return workplace;
+    }
+
+    /**
+     * Get the seed of the individual's random streams, which are derived from it for each run
+     * 
+     * @return Seed
+     */
+    public long getSeed() {
+        return seed;
+    }
 
-        reset();
+    /**
+     * Get the individual's index in the population, giving the order of occupants in a room
+     * 
+     * @return Index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Set the individual's index in the population
+     * 
+     * @param index Index
+     */
+    void setIndex(int index) {
+        this.index = index;
     }
 
     /**
@@ -119,7 +198,7 @@ public class Individual {
      * @return Current position
      */
     public Point getPosition() {
-        return position;
+        return GEOMETRY_FACTORY.createPoint(new Coordinate(position.x, position.y));
     }
 
     /**
@@ -150,42 +229,138 @@ public class Individual {
     }
 
     /**
-     * Retrieve all individuals in the same location
+     * Retrieve all individuals in the same location, as of the last occupancy update
      * 
-     * @return Set of individuals in the same location
+     * @return Room of individuals in the same location
      */
-    public HashSet<Individual> getContacts() {
-        if (location instanceof Building)
-            return ((Building) location).getOccupants(room);
-        return new HashSet<>();
+    public Room getContacts() {
+        if (occupiedRoom != null)
+            return occupiedRoom;
+        return NO_CONTACTS;
     }
 
     /**
-     * Reset the individual to their initial state for a new run
+     * Check whether the individual occupied a room as of the last occupancy update
+     * 
+     * @param room Room
+     * @return True if the individual is an occupant of the room
      */
-    public void reset() {
-        activity = Activity.SLEEP;
-        position = home.getPoint();
+    public boolean isOccupying(Room room) {
+        return occupiedRoom == room;
+    }
+
+    /**
+     * Clear the room occupied at the last occupancy update, and leave it, ready for occupancy to be rebuilt
+     */
+    public void vacate() {
+        if (occupiedRoom != null) {
+            occupiedRoom.clear();
+            occupiedRoom = null;
+        }
+    }
+
+    /**
+     * Register the individual as an occupant of the room at their current location
+     */
+    public void occupy() {
         if (location instanceof Building) {
-            ((Building) location).removeOccupant(this, room);
+            occupiedRoom = ((Building) location).getOccupants(room);
+            occupiedRoom.add(this);
+        } else {
+            occupiedRoom = null;
         }
+    }
+
+    /**
+     * Move the individual to the room at their current location if it has changed since the last
+     * occupancy update, marking both rooms to be rebuilt once every individual has moved
+     * 
+     * @param changedRooms Rooms to rebuild, to which any room newly marked as changed is added
+     */
+    public void updateOccupancy(List<Room> changedRooms) {
+        Room newRoom = location instanceof Building ? ((Building) location).getOccupants(room) : null;
+        if (newRoom == occupiedRoom) {
+            return;
+        }
+        if (occupiedRoom != null && occupiedRoom.markChanged()) {
+            changedRooms.add(occupiedRoom);
+        }
+        if (newRoom != null) {
+            if (newRoom.markChanged()) {
+                changedRooms.add(newRoom);
+            }
+            newRoom.arrive(this);
+        }
+        occupiedRoom = newRoom;
+    }
+
+    /**
+     * Reset the individual to their initial state for a new run
+     * 
+     * @param run Run number, selecting the individual's random stream for the run
+     */
+    public void reset(int run) {
+        random = RandomStreams.create(RandomStreams.derive(seed, run), RandomStreams.MOVEMENT);
+        activity = Activity.SLEEP;
+        position.setCoordinate(home.getPoint(random).getCoordinate());
         location = home;
         room = 0;
-        home.addOccupant(this, room);
         route = null;
         routeIndex = 0;
         hospital = null;
+        waitingHospital = null;
+        admission.set(NOT_WAITING);
+    }
+
+    /**
+     * Offer the individual a bed at the hospital whose waiting list they are on
+     * 
+     * @return True if the offer was accepted, false if the individual has stopped waiting
+     */
+    public boolean offerAdmission() {
+        return admission.compareAndSet(WAITING, OFFERED);
+    }
+
+    /**
+     * Stop waiting for a hospital bed
+     * 
+     * @return True if the individual was still waiting, false if a bed has already been offered
+     */
+    public boolean withdrawAdmission() {
+        return admission.compareAndSet(WAITING, NOT_WAITING);
+    }
+
+    /**
+     * Leave the individual's hospital or hospital waiting list, once they no longer need a bed
+     */
+    public void leaveHospital() {
+        if (hospital != null) {
+            hospital.dischargePatient(output);
+            hospital = null;
+        } else if (waitingHospital != null) {
+            waitingHospital.leaveWaitingList(this);
+            waitingHospital = null;
+            admission.set(NOT_WAITING);
+        }
     }
 
     /**
      * Run a single step of the simulation for the individual
      * 
+     * @param day     Current day
      * @param dayTime Current time of day
+     * @return True if the individual moved along a route
      */
-    public void step(int dayTime) {
+    public boolean step(int day, int dayTime) {
         // Skip individual if deceased
         if (health.getState() == HealthState.DECEASED)
-            return;
+            return false;
+
+        // Leave hospital once no longer severely symptomatic
+        if (health.getState() != HealthState.SYMPTOMATIC_SEVERE
+                && (hospital != null || waitingHospital != null)) {
+            leaveHospital();
+        }
 
         if (route == null) {
             // Attempt to hospitalise individual if severely symptomatic
@@ -206,24 +381,22 @@ public class Individual {
                 }
                 // Otherwise follow normal schedule
             } else {
-                if (activity == Activity.HOPSITALISATION) {
-                    hospital.dischargePatient(output);
-                }
-                followSchedule(dayTime);
+                followSchedule(day, dayTime);
             }
         }
 
         // Move individual along route
-        move();
+        return move();
     }
 
     /**
      * Follow the individual's schedule, changing location if needed
      * 
+     * @param day     Current day
      * @param dayTime Current time of day
      */
-    private void followSchedule(int dayTime) {
-        Activity newActivity = schedule.getActivity(dayTime);
+    private void followSchedule(int day, int dayTime) {
+        Activity newActivity = schedule.getActivity(day, dayTime);
         switch (newActivity) {
             case SLEEP:
                 if (activity != Activity.SLEEP) {
@@ -238,7 +411,7 @@ public class Individual {
                 }
                 break;
             case LEISURE:
-                if (activity != Activity.LEISURE || Math.random() <= LEISURE_GO_OUT_PROB) {
+                if (activity != Activity.LEISURE || random.nextDouble() <= LEISURE_GO_OUT_PROB) {
                     activity = Activity.LEISURE;
                     goToLeisure();
                 }
@@ -272,9 +445,9 @@ public class Individual {
      */
     private void goToLeisure() {
         // Either go home or to a randomly chosen amenity
-        if (!health.inLockdown() && Math.random() > LEISURE_GO_HOME_PROB) {
+        if (!health.inLockdown() && random.nextDouble() > LEISURE_GO_HOME_PROB) {
             if (!amenities.isEmpty()) {
-                Building amenity = amenities.get((int) (Math.random() * amenities.size()));
+                Building amenity = amenities.get(random.nextInt(amenities.size()));
                 if (!amenity.isClosed()) {
                     route = environment.getRoute(location, amenity);
                     routeIndex = 0;
@@ -286,30 +459,60 @@ public class Individual {
     }
 
     /**
-     * Send the individual to a hospital if possible
+     * Send the individual to a hospital if possible, otherwise join the nearest hospital's waiting list
      * 
      * @return True if the individual was hospitalised, false otherwise
      */
     private boolean goToHospital() {
-        // Select a random hospital
-        Hospital hospital = environment.getRandomHospital(location.getComponentID());
-
-        // Route to the hospital if it is not full
-        if (hospital != null && hospital.admitPatient(output)) {
-            this.hospital = hospital;
-            route = environment.findRoute(location, hospital);
+        // Take up a bed once offered from the waiting list
+        if (waitingHospital != null) {
+            if (admission.get() != OFFERED) {
+                return false;
+            }
+            admission.set(NOT_WAITING);
+            hospital = waitingHospital;
+            waitingHospital = null;
+            output.countHospitalAdmission();
+            route = environment.getRoute(location, hospital);
             routeIndex = 0;
             return true;
         }
+
+        // Try the nearest hospitals in order of distance
+        for (int rank = 0; rank < Environment.NEAREST_HOSPITAL_NUM; rank++) {
+            Hospital hospital = environment.getNearestHospital(location, rank);
+            if (hospital == null) {
+                break;
+            }
+
+            // Route to the hospital if it is not full
+            if (hospital.admitPatient(output)) {
+                this.hospital = hospital;
+                route = environment.getRoute(location, hospital);
+                routeIndex = 0;
+                return true;
+            }
+        }
+
+        // Otherwise wait for a bed at the nearest hospital
+        Hospital nearest = environment.getNearestHospital(location, 0);
+        if (nearest == null) {
+            return false;
+        }
+        waitingHospital = nearest;
+        admission.set(WAITING);
+        nearest.joinWaitingList(this);
         return false;
     }
 
     /**
      * Move the individual along their route
+     * 
+     * @return True if the individual was travelling along a route
      */
-    private void move() {
+    private boolean move() {
         if (route == null)
-            return;
+            return false;
 
         float deltaTime = Simulation.TIME_STEP;
 
@@ -318,51 +521,47 @@ public class Individual {
             // Finish if the destination is reached
             if (routeIndex == route.size() - 1) {
                 route = null;
-                return;
+                return true;
             }
 
             // Move to the next node in the route
             Node next = route.get(routeIndex + 1);
-            double distance = position.distance(next.getCentre());
+            Coordinate target = next.getCentre().getCoordinate();
+            double distance = position.distance(target);
             double timeToNext = distance / SPEED;
 
             // Check if the next node can be reached
             if (timeToNext < deltaTime) {
                 deltaTime -= timeToNext;
                 routeIndex++;
-                if (location instanceof Building) {
-                    ((Building) location).removeOccupant(this, room);
-                }
                 location = next;
 
-                // If reached a building, set individual as an occupant
+                // If reached a building, choose the room to occupy
                 if (location instanceof Building) {
                     Building building = (Building) location;
                     if (activity == Activity.WORK) {
                         if (workRoom == -1) {
-                            workRoom = building.getRandomRoom();
+                            workRoom = building.getRandomRoom(random);
                         }
                         room = workRoom;
                     } else {
-                        room = building.getRandomRoom();
+                        room = building.getRandomRoom(random);
                     }
-                    building.addOccupant(this, room);
                 }
 
                 // Update individual's position to be inside the new node
-                position = location.getPoint();
+                position.setCoordinate(location.getPoint(random).getCoordinate());
             } else {
 
-                // Interpolate position along the road between the current and next node
-                Coordinate current = position.getCoordinate();
-                Coordinate target = next.getCentre().getCoordinate();
-                double dx = target.x - current.x;
-                double dy = target.y - current.y;
+                // Interpolate position along the road between the current and next node, in place
+                double dx = target.x - position.x;
+                double dy = target.y - position.y;
                 double progress = deltaTime / timeToNext;
-                position = position.getFactory()
-                        .createPoint(new Coordinate(current.x + dx * progress, current.y + dy * progress));
+                position.x = position.x + dx * progress;
+                position.y = position.y + dy * progress;
                 deltaTime = 0;
             }
         } while (deltaTime > 0);
+        return true;
     }
 }
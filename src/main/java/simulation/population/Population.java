@@ -1,18 +1,29 @@
 package simulation.population;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 
 import simulation.core.InitialisationException;
+import simulation.core.InitialisationStageEvent;
+import simulation.core.RandomStreams;
 import simulation.core.SimulationOutput;
 import simulation.environment.Building;
 import simulation.environment.Environment;
+import simulation.environment.Room;
 import simulation.params.PopulationParams;
 
 /**
@@ -26,10 +37,35 @@ public class Population {
     // Maximum number of individuals simultaneously allowed in a 'room'
     private static final int ROOM_SIZE = 8;
 
+    // Number of partitions of the population per thread, for load balancing
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    // Order of the Hilbert curve used to sort individuals by location, giving a 2^16 x 2^16 grid
+    private static final int HILBERT_ORDER = 16;
+
     // Required simulation components
     private PopulationParams parameters;
     private List<Individual> individuals;
 
+    // Rooms whose occupants changed in each partition during the current occupancy update
+    private List<List<Room>> changedRooms;
+
+    // Schedules shared by individuals with the same schedule key, and their timetable rows shared by row key
+    private final ConcurrentHashMap<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, byte[]> scheduleRows = new ConcurrentHashMap<>();
+
+    // Number of threads the population is partitioned for
+    private final int threadNum;
+
+    /**
+     * Construct the population
+     * 
+     * @param threadNum Number of threads used for multithreading
+     */
+    public Population(int threadNum) {
+        this.threadNum = threadNum;
+    }
+
     /**
      * Get the population parameters
      * 
@@ -46,20 +82,36 @@ public class Population {
      * @param environment Environment
      * @param output      Simulation output
      * @param scheduler   Scheduler for multi-threading
+     * @param seed        Seed for the population's random streams
      * @throws InitialisationException If parameters are invalid
      */
     public void initialise(PopulationParams params, Environment environment, SimulationOutput output,
-            ScheduledExecutorService scheduler)
+            ScheduledExecutorService scheduler, long seed)
             throws InitialisationException {
         parameters = params;
+        schedules.clear();
+        scheduleRows.clear();
+
+        // Leave the rooms occupied by any previous population
+        if (individuals != null) {
+            for (Individual individual : individuals) {
+                individual.vacate();
+            }
+        }
+        changedRooms = new ArrayList<>();
+        for (int i = 0; i < getPartitionNum(); i++) {
+            changedRooms.add(new ArrayList<>());
+        }
 
-        List<Building> homes = environment.getHomes();
+        SplittableRandom householdRandom = RandomStreams.create(seed, RandomStreams.HOUSEHOLDS);
+        List<Building> homes = environment.getHomes(householdRandom);
 
         // Generate household sizes
+        InitialisationStageEvent householdEvent = new InitialisationStageEvent("Population", "Generate households");
         ArrayList<Integer> households = new ArrayList<>();
         int population = 0;
         while (population < parameters.getPopulationSize().getValue() && households.size() < homes.size()) {
-            int householdSize = parameters.getHouseholdSizeDistribution().sample();
+            int householdSize = parameters.getHouseholdSizeDistribution().sample(householdRandom);
             if (population + householdSize > parameters.getPopulationSize().getValue()) {
                 householdSize = parameters.getPopulationSize().getValue() - population;
             }
@@ -72,107 +124,346 @@ public class Population {
             throw new InitialisationException(
                     "There are not enough residential buildings to accommodate the population");
         }
+        householdEvent.commit();
 
-        // Populate households
+        // Populate households in parallel, with one task for each contiguous chunk of households,
+        // drawing from a random stream for each household so the population is independent of the chunking
+        long individualSeed = RandomStreams.derive(seed, RandomStreams.INDIVIDUALS);
+        InitialisationStageEvent individualEvent = new InitialisationStageEvent("Population",
+                "Generate individuals");
         ConcurrentHashMap<Building, Integer> publicMaxOccupancies = new ConcurrentHashMap<>();
-        List<Future<Individual>> futures = new ArrayList<>();
-        for (int h = 0; h < households.size(); h++) {
-
-            // Assign a home to the household
-            Building home = homes.get(h);
-            int componentID = home.getComponentID();
-
-            for (int i = 0; i < households.get(h); i++) {
-                futures.add(scheduler.schedule(() -> {
-
-                    // Generate age of the individual
-                    AgeGroup ageGroup = parameters.getAgeDistribution().sample();
-                    int age = (int) (Math.random() * (ageGroup.getMaxAge() - ageGroup.getMinAge() + 1))
-                            + ageGroup.getMinAge();
-
-                    // Generate occupation and assign a workplace for the individual, if any
-                    Building workplace;
-                    if (age < 5 || age > 65 ||
-                            (age >= 18 && Math.random() < parameters.getUnemploymentRate().getValue()) ||
-                            (age < 18 && Math.random() > parameters.getSchoolEntryRate().getValue())) {
-                        workplace = null;
-                    } else if (age < 18) {
-                        workplace = environment.getRandomSchool(componentID);
-                    } else if (age < 25 && Math.random() < parameters.getUniversityEntryRate().getValue()) {
-                        workplace = environment.getRandomUniversity(componentID);
-                    } else {
-                        workplace = environment.getRandomWorkplace(componentID);
-                    }
-                    if (workplace != null) {
-                        publicMaxOccupancies.put(workplace, publicMaxOccupancies.getOrDefault(workplace, 0) + 1);
+        int chunkNum = getPartitionNum();
+        int chunkSize = (households.size() + chunkNum - 1) / chunkNum;
+        List<Callable<List<Individual>>> tasks = new ArrayList<>(chunkNum);
+        for (int start = 0; start < households.size(); start += chunkSize) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(start + chunkSize, households.size());
+            tasks.add(() -> {
+                List<Individual> chunk = new ArrayList<>();
+                for (int h = chunkStart; h < chunkEnd; h++) {
+                    // Assign a home to the household
+                    Building home = homes.get(h);
+                    SplittableRandom random = RandomStreams.create(individualSeed, h);
+                    for (int i = 0; i < households.get(h); i++) {
+                        chunk.add(generateIndividual(environment, output, home, publicMaxOccupancies, random));
                     }
+                }
+                return chunk;
+            });
+        }
 
-                    // Assign amenities to the individual to visit in their free time
-                    List<Building> amenities = new ArrayList<Building>();
-                    for (int j = 0; j < AMENITY_NUM; j++) {
-                        Building amenity = environment.getRandomAmenity(componentID);
-                        if (amenity != null) {
-                            amenities.add(amenity);
-                            publicMaxOccupancies.put(amenity, publicMaxOccupancies.getOrDefault(amenity, 0) + 1);
-                        }
-                    }
+        // Wait for all chunks to be generated, joining them in household order
+        individuals = new ArrayList<>(population);
+        try {
+            for (Future<List<Individual>> future : scheduler.invokeAll(tasks)) {
+                individuals.addAll(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new InitialisationException("Individuals could not be generated: " + e.getMessage());
+        }
+        individualEvent.commit();
 
-                    // Initialise the individual
-                    Individual individual = new Individual(environment, output, age, home, workplace, amenities);
-                    return individual;
+        // Store individuals in order of location, so that each partition mostly visits nearby buildings
+        InitialisationStageEvent orderEvent = new InitialisationStageEvent("Population", "Order individuals");
+        sortByLocation();
+        orderEvent.commit();
 
-                }, 0, TimeUnit.MILLISECONDS));
+        // Collect the unique pairs of regular buildings across the population, keyed by the building
+        // with the lower identifier, as routes are cached in both directions
+        InitialisationStageEvent pairEvent = new InitialisationStageEvent("Population", "Collect route pairs");
+        ConcurrentHashMap<Building, Set<Building>> routePairs = new ConcurrentHashMap<>();
+        forEach(scheduler, individual -> {
+            List<Building> regularBuildings = individual.getRegularBuildings();
+            for (int i = 0; i < regularBuildings.size() - 1; i++) {
+                for (int j = i + 1; j < regularBuildings.size(); j++) {
+                    Building a = regularBuildings.get(i);
+                    Building b = regularBuildings.get(j);
+                    if (a == b) {
+                        continue;
+                    }
+                    Building source = a.getID() < b.getID() ? a : b;
+                    Building destination = source == a ? b : a;
+                    routePairs.computeIfAbsent(source, k -> ConcurrentHashMap.newKeySet()).add(destination);
+                }
             }
-        }
+        });
+        pairEvent.commit();
 
-        // Wait for all individuals to be created in parallel
-        individuals = new ArrayList<>();
-        for (Future<Individual> future : futures) {
-            try {
-                individuals.add(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
+        // Pre-compute the routes once each in parallel, with one task for each chunk of source buildings
+        InitialisationStageEvent routeEvent = new InitialisationStageEvent("Population", "Precompute routes");
+        List<Building> sources = new ArrayList<>(routePairs.keySet());
+        int sourceChunkSize = (sources.size() + chunkNum - 1) / chunkNum;
+        List<Callable<Void>> routeTasks = new ArrayList<>(chunkNum);
+        for (int start = 0; start < sources.size(); start += sourceChunkSize) {
+            List<Building> chunk = sources.subList(start, Math.min(start + sourceChunkSize, sources.size()));
+            routeTasks.add(() -> {
+                for (Building source : chunk) {
+                    environment.precomputeRoutes(source, routePairs.get(source));
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : scheduler.invokeAll(routeTasks)) {
+                future.get();
             }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new InitialisationException("Routes could not be computed: " + e.getMessage());
         }
+        routePairs.clear();
+        routeEvent.commit();
 
         // Assign rooms to buildings based on their maximum occupancy
+        InitialisationStageEvent roomEvent = new InitialisationStageEvent("Population", "Assign rooms");
         for (Building building : publicMaxOccupancies.keySet()) {
             int roomNum = (int) Math.ceil(publicMaxOccupancies.get(building) / (float) ROOM_SIZE);
             building.setRooms(roomNum);
         }
         publicMaxOccupancies.clear();
+        roomEvent.commit();
     }
 
     /**
-     * Run a single step of the population simulation
+     * Generate an individual of a household, with a random age, occupation and amenities
      * 
-     * @param scheduler Scheduled executor service for multithreading
-     * @param dayTime   Current time of day
+     * @param environment          Environment
+     * @param output               Simulation output
+     * @param home                 Home of the individual's household
+     * @param publicMaxOccupancies Maximum occupancies of public buildings, updated atomically
+     * @param random               Random stream of the household
+     * @return Individual
+     */
+    private Individual generateIndividual(Environment environment, SimulationOutput output, Building home,
+            ConcurrentHashMap<Building, Integer> publicMaxOccupancies, SplittableRandom random) {
+        int componentID = home.getComponentID();
+
+        // Generate age of the individual
+        AgeGroup ageGroup = parameters.getAgeDistribution().sample(random);
+        int age = random.nextInt(ageGroup.getMaxAge() - ageGroup.getMinAge() + 1) + ageGroup.getMinAge();
+
+        // Generate occupation and assign a workplace and work pattern for the individual, if any
+        Building workplace;
+        WorkPattern pattern = WorkPattern.DAY;
+        if (age < 5 || age > 65 ||
+                (age >= 18 && random.nextDouble() < parameters.getUnemploymentRate().getValue()) ||
+                (age < 18 && random.nextDouble() > parameters.getSchoolEntryRate().getValue())) {
+            workplace = null;
+        } else if (age < 18) {
+            workplace = environment.getRandomSchool(componentID, random);
+        } else if (age < 25 && random.nextDouble() < parameters.getUniversityEntryRate().getValue()) {
+            workplace = environment.getRandomUniversity(componentID, random);
+        } else {
+            workplace = environment.getRandomWorkplace(componentID, random);
+            if (random.nextDouble() < parameters.getShiftWorkRate().getValue()) {
+                pattern = WorkPattern.SHIFT;
+            }
+        }
+        if (workplace == null) {
+            pattern = WorkPattern.NONE;
+        } else {
+            publicMaxOccupancies.merge(workplace, 1, Integer::sum);
+        }
+
+        // Assign amenities to the individual to visit in their free time
+        List<Building> amenities = new ArrayList<Building>();
+        for (int j = 0; j < AMENITY_NUM; j++) {
+            Building amenity = environment.getRandomAmenity(componentID, random);
+            if (amenity != null) {
+                amenities.add(amenity);
+                publicMaxOccupancies.merge(amenity, 1, Integer::sum);
+            }
+        }
+
+        // Draw the individual's schedule, sharing it with any individual with the same schedule
+        int workingDays = parameters.getWorkingDays().getValue();
+        Schedule schedule = schedules.computeIfAbsent(Schedule.getKey(age, pattern, random),
+                key -> new Schedule(key, workingDays, scheduleRows));
+
+        // Initialise the individual
+        return new Individual(environment, output, age, home, workplace, amenities, schedule, random);
+    }
+
+    /**
+     * Sort individuals by the position of their home along a Hilbert curve, and then by that of their workplace,
+     * keeping households together in a stable order
      */
-    public void step(ScheduledExecutorService scheduler, int dayTime) {
-        // Initialise a task for each individual
-        List<Callable<Void>> tasks = new ArrayList<>();
+    private void sortByLocation() {
+        // Find the extent of the buildings which individuals live and work in
+        Envelope extent = new Envelope();
         for (Individual individual : individuals) {
+            extent.expandToInclude(individual.getHome().getCentre().getCoordinate());
+            if (individual.getWorkplace() != null) {
+                extent.expandToInclude(individual.getWorkplace().getCentre().getCoordinate());
+            }
+        }
+
+        // Find each individual's home and workplace indices along the curve, with no workplace coming last
+        long[] homeKeys = new long[individuals.size()];
+        long[] workKeys = new long[individuals.size()];
+        Integer[] order = new Integer[individuals.size()];
+        for (int i = 0; i < individuals.size(); i++) {
+            Individual individual = individuals.get(i);
+            homeKeys[i] = getHilbertIndex(individual.getHome(), extent);
+            workKeys[i] = individual.getWorkplace() != null ? getHilbertIndex(individual.getWorkplace(), extent)
+                    : Long.MAX_VALUE;
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> homeKeys[i]).thenComparingLong(i -> workKeys[i]));
+
+        List<Individual> sorted = new ArrayList<>(individuals.size());
+        for (int i : order) {
+            individuals.get(i).setIndex(sorted.size());
+            sorted.add(individuals.get(i));
+        }
+        individuals = sorted;
+    }
+
+    /**
+     * Get the index of a building's centre along a Hilbert curve covering an extent
+     * 
+     * @param building Building
+     * @param extent   Extent covered by the curve
+     * @return Index along the curve
+     */
+    private static long getHilbertIndex(Building building, Envelope extent) {
+        int n = 1 << HILBERT_ORDER;
+        Coordinate centre = building.getCentre().getCoordinate();
+        int x = (int) Math.min(n - 1, (centre.x - extent.getMinX()) / Math.max(extent.getWidth(), 1e-12) * n);
+        int y = (int) Math.min(n - 1, (centre.y - extent.getMinY()) / Math.max(extent.getHeight(), 1e-12) * n);
+
+        // Descend the curve's quadrants, rotating each so that the curve stays continuous
+        long index = 0;
+        for (int s = n / 2; s > 0; s /= 2) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = n - 1 - x;
+                    y = n - 1 - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Apply an action to every individual in parallel, using one task for each
+     * contiguous partition of the population rather than one task per individual
+     * 
+     * @param scheduler Scheduled executor service for multithreading
+     * @param action    Action to apply to each individual
+     */
+    public void forEach(ScheduledExecutorService scheduler, Consumer<Individual> action) {
+        forEachPartition(scheduler, (partition, partitionIndividuals) -> {
+            for (Individual individual : partitionIndividuals) {
+                action.accept(individual);
+            }
+        });
+    }
+
+    /**
+     * Apply an action to each contiguous partition of the population in parallel.
+     * Each partition is processed by a single task, so an action may keep scratch
+     * state for its partition number without synchronisation.
+     * If the action fails for any partition, its exception is rethrown once every partition has finished.
+     * 
+     * @param scheduler Scheduled executor service for multithreading
+     * @param action    Action to apply to each partition number and its individuals
+     */
+    public void forEachPartition(ScheduledExecutorService scheduler,
+            BiConsumer<Integer, List<Individual>> action) {
+        // Initialise a task for each partition
+        int partitionNum = getPartitionNum();
+        int partitionSize = (individuals.size() + partitionNum - 1) / partitionNum;
+        List<Callable<Void>> tasks = new ArrayList<>(partitionNum);
+        for (int start = 0; start < individuals.size(); start += partitionSize) {
+            int partition = start / partitionSize;
+            List<Individual> partitionIndividuals = individuals.subList(start,
+                    Math.min(start + partitionSize, individuals.size()));
             tasks.add(() -> {
-                individual.step(dayTime);
+                action.accept(partition, partitionIndividuals);
                 return null;
             });
         }
 
-        // Delegate tasks to the scheduler
+        // Delegate tasks to the scheduler, rethrowing the failure of any partition
         try {
-            scheduler.invokeAll(tasks);
+            for (Future<Void> future : scheduler.invokeAll(tasks)) {
+                future.get();
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Get the maximum number of partitions the population is divided into for multithreading
+     * 
+     * @return Number of partitions
+     */
+    public int getPartitionNum() {
+        return threadNum * PARTITIONS_PER_THREAD;
+    }
+
+    /**
+     * Update the occupancy of rooms from the individuals' current locations.
+     * Called at the barrier between the movement and disease phases, so that movement
+     * never writes to shared rooms and the disease phase reads a frozen snapshot.
+     * Individuals who changed room are recorded in parallel, and then each changed room is rebuilt in parallel,
+     * keeping its occupants in population order, so occupancy is independent of thread timing.
+     * 
+     * @param scheduler Scheduled executor service for multithreading
+     */
+    public void updateOccupancy(ScheduledExecutorService scheduler) {
+        forEachPartition(scheduler, (partition, partitionIndividuals) -> {
+            List<Room> rooms = changedRooms.get(partition);
+            for (Individual individual : partitionIndividuals) {
+                individual.updateOccupancy(rooms);
+            }
+        });
+        forEachPartition(scheduler, (partition, partitionIndividuals) -> {
+            List<Room> rooms = changedRooms.get(partition);
+            for (Room room : rooms) {
+                room.rebuild();
+            }
+            rooms.clear();
+        });
+    }
+
+    /**
+     * Rebuild the occupancy of all rooms from the individuals' current locations,
+     * filling rooms in population order
+     */
+    private void rebuildOccupancy() {
+        for (Individual individual : individuals) {
+            individual.vacate();
+        }
+        for (Individual individual : individuals) {
+            individual.occupy();
         }
     }
 
     /**
      * Reset the population to its initial state for a new run
+     * 
+     * @param run Run number, selecting each individual's random streams for the run
      */
-    public void reset() {
+    public void reset(int run) {
         for (Individual individual : individuals) {
-            individual.reset();
+            individual.reset(run);
         }
+        rebuildOccupancy();
     }
 }
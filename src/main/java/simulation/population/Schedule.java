@@ -1,78 +1,209 @@
 package simulation.population;
 
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import simulation.core.Simulation;
 
 /**
- * Class to represent an individual's schedule
+ * Class to represent an individual's weekly schedule, as a timetable of the scheduled activity at each time step
+ * of each day of the week. Weeks start on a Monday, and work only takes place on the working days at the start
+ * of the week, with shift work continuing into the following morning.
+ * Schedules are identified by a packed key of their work pattern and events' time steps, so that individuals
+ * with the same key can share a single schedule, and each day's timetable row is shared by every schedule
+ * with the same events on that day.
  */
 public class Schedule {
 
     // Range in hours for randomising start and end times
     private static final double RANDOM_RANGE = 5;
 
-    // List of events in the schedule
-    private ArrayList<Event> events;
+    // Number of days in a week
+    public static final int WEEK_LENGTH = 7;
+
+    // Hours of the day in which shift workers sleep
+    private static final int SHIFT_SLEEP_START = 8;
+    private static final int SHIFT_SLEEP_END = 15;
+
+    // Number of time steps in a day
+    private static final int SLOT_NUM = Simulation.DAY_LENGTH / Simulation.TIME_STEP;
+
+    // Number of bits used by each event time step in a packed key, followed by the work pattern
+    private static final int SLOT_BITS = 8;
+    private static final int PATTERN_SHIFT = 4 * SLOT_BITS;
+
+    // Mask of the work time steps in a packed key, and the flags marking work on a day in a row key
+    private static final long WORK_MASK = ((1L << 2 * SLOT_BITS) - 1) << 2 * SLOT_BITS;
+    private static final long STARTS_TODAY = 1L << PATTERN_SHIFT;
+    private static final long STARTED_YESTERDAY = 1L << PATTERN_SHIFT + 1;
+
+    // Activities, indexed by the ordinals stored in the timetable
+    private static final Activity[] ACTIVITIES = Activity.values();
+
+    // Timetable row of each day of the week, holding the ordinal of the scheduled activity at each time step
+    private final byte[][] days;
 
     /**
-     * Construct a schedule for an individual, given their age and work status
-     * 
-     * @param age       Individual's age
-     * @param isWorking True if the individual is working, false otherwise
+     * Draw the packed key of a schedule for an individual, given their age and work pattern
+     *
+     * @param age     Individual's age
+     * @param pattern Individual's work pattern
+     * @param random  Random stream to draw start and end times from
+     * @return Packed key of the work pattern, and the sleep and work start and end time steps
      */
-    public Schedule(int age, boolean isWorking) {
-        events = new ArrayList<>();
-
-        // Schedule sleep time based on age
-        if (age < 5) {
-            events.add(new Event(Activity.SLEEP, getTime(19), getTime(7)));
+    public static long getKey(int age, WorkPattern pattern, SplittableRandom random) {
+        // Schedule sleep time based on age, or during the day for shift workers
+        Event sleep;
+        if (pattern == WorkPattern.SHIFT) {
+            sleep = new Event(Activity.SLEEP, getTime(SHIFT_SLEEP_START, random), getTime(SHIFT_SLEEP_END, random));
+        } else if (age < 5) {
+            sleep = new Event(Activity.SLEEP, getTime(19, random), getTime(7, random));
         } else if (age < 13) {
-            events.add(new Event(Activity.SLEEP, getTime(21), getTime(7)));
+            sleep = new Event(Activity.SLEEP, getTime(21, random), getTime(7, random));
         } else if (age < 18) {
-            events.add(new Event(Activity.SLEEP, getTime(22), getTime(8)));
+            sleep = new Event(Activity.SLEEP, getTime(22, random), getTime(8, random));
         } else if (age < 25) {
-            events.add(new Event(Activity.SLEEP, getTime(24), getTime(8)));
+            sleep = new Event(Activity.SLEEP, getTime(24, random), getTime(8, random));
         } else if (age < 65) {
-            events.add(new Event(Activity.SLEEP, getTime(23), getTime(7)));
+            sleep = new Event(Activity.SLEEP, getTime(23, random), getTime(7, random));
         } else {
-            events.add(new Event(Activity.SLEEP, getTime(22), getTime(6)));
+            sleep = new Event(Activity.SLEEP, getTime(22, random), getTime(6, random));
         }
 
-        // Schedule work time if individual works
-        if (isWorking) {
-            events.add(new Event(Activity.WORK, getTime(9), getTime(17)));
+        // Schedule work time if individual works, otherwise leave an empty work event
+        Event work = new Event(Activity.WORK, 0, 0);
+        if (pattern != WorkPattern.NONE) {
+            work = new Event(Activity.WORK, getTime(pattern.getStartHour(), random),
+                    getTime(pattern.getEndHour(), random));
         }
+
+        int slots = getSlot(sleep.getStart())
+                | getSlot(sleep.getEnd()) << SLOT_BITS
+                | getSlot(work.getStart()) << 2 * SLOT_BITS
+                | getSlot(work.getEnd()) << 3 * SLOT_BITS;
+        return Integer.toUnsignedLong(slots) | (long) pattern.ordinal() << PATTERN_SHIFT;
     }
 
     /**
-     * Determine the scheduled activity at a given time of day
-     * 
-     * @param time Time of day
+     * Construct the schedule's timetable with a packed key, sharing each day's row with other schedules
+     *
+     * @param key         Packed key of the work pattern, and the sleep and work start and end time steps
+     * @param workingDays Number of working days at the start of the week
+     * @param rows        Timetable rows shared between schedules, by row key
+     */
+    public Schedule(long key, int workingDays, Map<Long, byte[]> rows) {
+        WorkPattern pattern = WorkPattern.values()[(int) (key >>> PATTERN_SHIFT)];
+        boolean overnight = getSlot(key, 2) > getSlot(key, 3);
+
+        days = new byte[WEEK_LENGTH][];
+        for (int day = 0; day < WEEK_LENGTH; day++) {
+            // Key the row by the events' time steps and whether work starts today or continues from yesterday,
+            // dropping the work time steps on days without work so that those rows match non-workers' rows
+            long rowKey = key & ((1L << PATTERN_SHIFT) - 1);
+            if (pattern != WorkPattern.NONE && day < workingDays) {
+                rowKey |= STARTS_TODAY;
+            }
+            if (pattern != WorkPattern.NONE && overnight && (day + WEEK_LENGTH - 1) % WEEK_LENGTH < workingDays) {
+                rowKey |= STARTED_YESTERDAY;
+            }
+            if ((rowKey & (STARTS_TODAY | STARTED_YESTERDAY)) == 0) {
+                rowKey &= ~WORK_MASK;
+            }
+            days[day] = rows.computeIfAbsent(rowKey, Schedule::getRow);
+        }
+    }
+
+    /**
+     * Determine the scheduled activity at a given time of a given day
+     *
+     * @param day  Day of the simulation
+     * @param time Time of day, at a multiple of the time step, with the end of the day being the next day's start
      * @return Activity type
      */
-    public Activity getActivity(int time) {
-        for (Event event : events) {
-            // Normal events
-            if (event.getStart() <= event.getEnd()) {
-                if (time >= event.getStart() && time < event.getEnd()) {
-                    return event.getActivity();
-                }
-                // Overnight events
-            } else {
-                if (time >= event.getStart() || time < event.getEnd()) {
-                    return event.getActivity();
-                }
+    public Activity getActivity(int day, int time) {
+        int slot = time / Simulation.TIME_STEP;
+        if (slot == SLOT_NUM) {
+            day++;
+            slot = 0;
+        }
+        return ACTIVITIES[days[day % WEEK_LENGTH][slot]];
+    }
+
+    /**
+     * Find the activity at each time step of a day, with sleep taking precedence over work
+     *
+     * @param rowKey Row key of the sleep and work time steps, and whether work starts today or continues
+     *               from yesterday
+     * @return Timetable row of activity ordinals
+     */
+    private static byte[] getRow(long rowKey) {
+        Event sleep = new Event(Activity.SLEEP, getSlot(rowKey, 0), getSlot(rowKey, 1));
+        Event work = new Event(Activity.WORK, getSlot(rowKey, 2), getSlot(rowKey, 3));
+        boolean startsToday = (rowKey & STARTS_TODAY) != 0;
+        boolean startedYesterday = (rowKey & STARTED_YESTERDAY) != 0;
+
+        byte[] row = new byte[SLOT_NUM];
+        for (int slot = 0; slot < SLOT_NUM; slot++) {
+            Activity activity = Activity.LEISURE;
+            if (isDuring(sleep, true, true, slot)) {
+                activity = Activity.SLEEP;
+            } else if (isDuring(work, startsToday, startedYesterday, slot)) {
+                activity = Activity.WORK;
             }
+            row[slot] = (byte) activity.ordinal();
+        }
+        return row;
+    }
+
+    /**
+     * Check whether a time step of a day falls within an event, where an overnight event
+     * continues from the day it starts into the next
+     *
+     * @param event            Event, with start and end time steps
+     * @param startsToday      True if the event starts on this day
+     * @param startedYesterday True if the event started on the previous day
+     * @param slot             Time step of the day
+     * @return True if the time step is within the event
+     */
+    private static boolean isDuring(Event event, boolean startsToday, boolean startedYesterday, int slot) {
+        // Normal events
+        if (event.getStart() <= event.getEnd()) {
+            return startsToday && slot >= event.getStart() && slot < event.getEnd();
         }
-        return Activity.LEISURE;
+        // Overnight events
+        return (startsToday && slot >= event.getStart()) || (startedYesterday && slot < event.getEnd());
     }
 
     /**
      * Convert time of day in hours to seconds and add random offset
-     * 
-     * @param hours Time of day in hours
+     *
+     * @param hours  Time of day in hours
+     * @param random Random stream to draw the offset from
      * @return Time of day in seconds
      */
-    private int getTime(int hours) {
-        return (int) ((hours + Math.random() * RANDOM_RANGE - RANDOM_RANGE / 2) * 3600);
+    private static int getTime(int hours, SplittableRandom random) {
+        return (int) ((hours + random.nextDouble() * RANDOM_RANGE - RANDOM_RANGE / 2) * 3600);
+    }
+
+    /**
+     * Convert time of day in seconds to the first time step at or after it,
+     * so that a time step is within an event exactly when its time is
+     *
+     * @param time Time of day in seconds
+     * @return Time step
+     */
+    private static int getSlot(int time) {
+        return (time + Simulation.TIME_STEP - 1) / Simulation.TIME_STEP;
+    }
+
+    /**
+     * Unpack a time step from a packed key
+     *
+     * @param key   Packed key
+     * @param index Index of the time step in the key
+     * @return Time step
+     */
+    private static int getSlot(long key, int index) {
+        return (int) (key >>> (index * SLOT_BITS)) & ((1 << SLOT_BITS) - 1);
     }
 }
@@ -0,0 +1,42 @@
+package simulation.population;
+
+/**
+ * Enum class for the patterns of work in an individual's weekly schedule
+ */
+public enum WorkPattern {
+    NONE(0, 0),
+    DAY(9, 17),
+    SHIFT(22, 6);
+
+    private int startHour;
+    private int endHour;
+
+    /**
+     * Construct a work pattern
+     *
+     * @param startHour Typical hour of the day at which work starts
+     * @param endHour   Typical hour of the day at which work ends, which is the next day if before the start
+     */
+    WorkPattern(int startHour, int endHour) {
+        this.startHour = startHour;
+        this.endHour = endHour;
+    }
+
+    /**
+     * Get the typical hour of the day at which work starts
+     *
+     * @return Start hour
+     */
+    public int getStartHour() {
+        return startHour;
+    }
+
+    /**
+     * Get the typical hour of the day at which work ends
+     *
+     * @return End hour
+     */
+    public int getEndHour() {
+        return endHour;
+    }
+}
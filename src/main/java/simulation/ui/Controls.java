@@ -159,7 +159,7 @@ public class Controls extends HBox {
         }
 
         // Update run label
-        int runs = simulation.getParameters().getRuns().getValue();
+        int runs = simulation.getOutput().getRuns();
         runLabel.setText("Run " + Math.min(simulation.getRun() + 1, runs) + " / " + runs);
 
         // Update day label
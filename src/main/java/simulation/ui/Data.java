@@ -310,7 +310,7 @@ public class Data extends VBox {
      */
     private HBox getRunControls(int run) {
         // No controls needed if only one run
-        if (simulation.getParameters().getRuns().getValue() == 1) {
+        if (simulation.getOutput().getRuns() == 1) {
             return new HBox();
         }
 
@@ -323,7 +323,7 @@ public class Data extends VBox {
 
         // Current run label
         Label runLabel;
-        int runs = simulation.getParameters().getRuns().getValue();
+        int runs = simulation.getOutput().getRuns();
         if (run == runs) {
             runLabel = new Label("Average Run");
         } else {
@@ -0,0 +1,49 @@
+package simulation.disease;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Class evaluating disease transmission for several individuals at once using SIMD instructions.
+ * Requires the jdk.incubator.vector module, so is compiled separately from the rest of the simulation and only
+ * loaded when vectorised transmission is enabled.
+ * The exponential is computed in float precision by the Vector API, which is not bit-identical to the scalar
+ * kernel's double precision Math.exp, so an individual whose draw is within rounding of their transmission
+ * probability may be exposed under one kernel and not the other. Runs with the same seed are therefore
+ * reproducible with either kernel, but not between them. Every individual of a block, including those in the
+ * final partial vector, is evaluated with the same vector exponential.
+ */
+public class VectorTransmissionKernel implements ITransmissionKernel {
+
+    // Preferred vector shape of the platform
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void evaluate(float baseTransmissibility, float[] infectivity, float[] susceptibility, float[] draws,
+            boolean[] exposed, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector transmissibility = FloatVector.fromArray(SPECIES, infectivity, i)
+                    .mul(FloatVector.fromArray(SPECIES, susceptibility, i))
+                    .mul(baseTransmissibility);
+            FloatVector probability = transmissibility.neg().lanewise(VectorOperators.EXP).neg().add(1);
+            VectorMask<Float> mask = FloatVector.fromArray(SPECIES, draws, i).lt(probability);
+            mask.intoArray(exposed, i);
+        }
+        // Evaluate the remainder of the block which does not fill a vector with a partial vector
+        if (i < length) {
+            VectorMask<Float> inRange = SPECIES.indexInRange(i, length);
+            FloatVector transmissibility = FloatVector.fromArray(SPECIES, infectivity, i, inRange)
+                    .mul(FloatVector.fromArray(SPECIES, susceptibility, i, inRange))
+                    .mul(baseTransmissibility);
+            FloatVector probability = transmissibility.neg().lanewise(VectorOperators.EXP).neg().add(1);
+            VectorMask<Float> mask = FloatVector.fromArray(SPECIES, draws, i, inRange).lt(probability);
+            for (int lane = 0; i + lane < length; lane++) {
+                exposed[i + lane] = mask.laneIsSet(lane);
+            }
+        }
+    }
+}